@@ -0,0 +1,645 @@
+package rubikscube;
+
+import java.util.LinkedList;
+
+public class MoveTables {
+
+  public static final int MOVES = 18;
+  public static final int CORNER_PERMUTATIONS = 40320;
+  public static final int CORNER_ORIENTATIONS = 2187;
+  public static final int EDGE_POSITIONS = 665280;
+  public static final int EDGE_ORIENTATIONS = 64;
+  public static final int CORNER_STATES = 88179840;
+  public static final int EDGE_STATES = 42577920;
+  public static final int CUBE_EDGE_PERMUTATIONS = 239500800;
+  public static final int CUBE_EDGE_ORIENTATIONS = 2048;
+
+  public static final int CORNER_PERMUTATION = 0;
+  public static final int CORNER_ORIENTATION = 1;
+  public static final int EDGE_POSITION_1 = 2;
+  public static final int EDGE_ORIENTATION_1 = 3;
+  public static final int EDGE_POSITION_2 = 4;
+  public static final int EDGE_ORIENTATION_2 = 5;
+  public static final int COORDINATES = 6;
+  public static final int CUBIES = 20;
+
+  private static final int num_corners = 8;
+  private static final int num_edges = 12;
+  private static final int group_size = num_edges / 2;
+  private static final int twist_selectors = 3 * 128;
+
+  private static final byte[] cornerMoves = new byte[num_corners * 3 * MOVES];
+  private static final byte[] edgeMoves = new byte[num_edges * 2 * MOVES];
+  private static final int[] cornerPermutationMoves = new int[CORNER_PERMUTATIONS * MOVES];
+  private static final short[] cornerTwists = new short[CORNER_PERMUTATIONS * MOVES];
+  private static final char[] cornerOrientationMoves = new char[twist_selectors * CORNER_ORIENTATIONS];
+  private static final int[] edgePositionMoves = new int[EDGE_POSITIONS * MOVES];
+  private static final byte[] edgeFlips = new byte[EDGE_POSITIONS * MOVES];
+  private static final int[] cornerPermutationStates = new int[CORNER_PERMUTATIONS];
+  private static final int[] cornerOrientationStates = new int[CORNER_ORIENTATIONS];
+  private static final int[][] edgePositionStates = new int[2][EDGE_POSITIONS];
+  private static final int[] edgeOrientationStates = new int[EDGE_ORIENTATIONS];
+  private static final byte[] inverseCornerAxes = new byte[num_corners * num_corners * 3];
+  private static final byte[][][] cornerPlacements = new byte[num_corners][num_corners * 3][];
+  private static final boolean[] validCornerAxes = new boolean[6561];
+  private static final boolean[] validEdgeOrientations = new boolean[1 << num_edges];
+  private static final int[] cornerBases = new int[num_corners];
+  private static final int[] edgeBases = new int[group_size];
+  private static final int[] solved = new int[COORDINATES];
+
+  static {
+    cornerBases[0] = 1;
+    for (int i = 1; i < num_corners; i++) {
+      cornerBases[i] = cornerBases[i - 1] * (num_corners - i + 1) * 3;
+    }
+    edgeBases[0] = 1;
+    for (int j = 1; j < group_size; j++) {
+      edgeBases[j] = edgeBases[j - 1] * (num_edges - j + 1) * 2;
+    }
+
+    buildCubieMoves();
+    buildInverseTables();
+    buildValidOrientations();
+    buildCornerTables();
+    buildEdgeTables();
+
+    byte[] slots = new byte[group_size];
+    for (int i = 0; i < slots.length; i++) {
+      slots[i] = (byte) (group_size + i);
+    }
+    solved[EDGE_POSITION_2] = rank(slots, group_size, num_edges);
+  }
+
+  private MoveTables() {
+  }
+
+  public static void move(int[] coordinates, int move, int[] result) {
+    int permutation = coordinates[CORNER_PERMUTATION] * MOVES + move;
+    result[CORNER_PERMUTATION] = cornerPermutationMoves[permutation];
+    result[CORNER_ORIENTATION] = cornerOrientationMoves[cornerTwists[permutation] * CORNER_ORIENTATIONS + coordinates[CORNER_ORIENTATION]];
+
+    int position = coordinates[EDGE_POSITION_1] * MOVES + move;
+    result[EDGE_POSITION_1] = edgePositionMoves[position];
+    result[EDGE_ORIENTATION_1] = coordinates[EDGE_ORIENTATION_1] ^ edgeFlips[position];
+
+    position = coordinates[EDGE_POSITION_2] * MOVES + move;
+    result[EDGE_POSITION_2] = edgePositionMoves[position];
+    result[EDGE_ORIENTATION_2] = coordinates[EDGE_ORIENTATION_2] ^ edgeFlips[position];
+  }
+
+  public static void getStates(int[] coordinates, int[] states) {
+    states[0] = getCornerState(coordinates[CORNER_PERMUTATION], coordinates[CORNER_ORIENTATION]);
+    states[1] = getEdgeState(0, coordinates[EDGE_POSITION_1], coordinates[EDGE_ORIENTATION_1]);
+    states[2] = getEdgeState(1, coordinates[EDGE_POSITION_2], coordinates[EDGE_ORIENTATION_2]);
+  }
+
+  public static boolean isSolved(int[] coordinates) {
+    for (int i = 0; i < COORDINATES; i++) {
+      if (coordinates[i] != solved[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public static void getSolvedCoordinates(int[] coordinates) {
+    System.arraycopy(solved, 0, coordinates, 0, COORDINATES);
+  }
+
+  public static int getCornerState(int permutation, int orientation) {
+    return cornerPermutationStates[permutation] + cornerOrientationStates[orientation];
+  }
+
+  public static int getCornerPermutation(int state) {
+    int permutation = 0;
+    int base = 1;
+    for (int i = 0; i < num_corners - 1; i++) {
+      permutation += (state % ((num_corners - i) * 3) / 3) * base;
+      state /= (num_corners - i) * 3;
+      base *= num_corners - i;
+    }
+    return permutation;
+  }
+
+  public static int getCornerOrientation(int state) {
+    int orientation = 0;
+    int base = 1;
+    for (int i = 0; i < num_corners - 1; i++) {
+      orientation += (state % ((num_corners - i) * 3) % 3) * base;
+      state /= (num_corners - i) * 3;
+      base *= 3;
+    }
+    return orientation;
+  }
+
+  public static int getEdgeState(int group, int position, int orientation) {
+    return edgePositionStates[group][position] + edgeOrientationStates[orientation];
+  }
+
+  public static int moveCornerPermutation(int permutation, int move) {
+    return cornerPermutationMoves[permutation * MOVES + move];
+  }
+
+  public static int moveCornerOrientation(int permutation, int orientation, int move) {
+    return cornerOrientationMoves[cornerTwists[permutation * MOVES + move] * CORNER_ORIENTATIONS + orientation];
+  }
+
+  public static int moveEdgePosition(int position, int move) {
+    return edgePositionMoves[position * MOVES + move];
+  }
+
+  public static int moveEdgeOrientation(int position, int orientation, int move) {
+    return orientation ^ edgeFlips[position * MOVES + move];
+  }
+
+  public static int getSolvedEdgePosition(int group) {
+    return group == 0 ? solved[EDGE_POSITION_1] : solved[EDGE_POSITION_2];
+  }
+
+  public static void getCoordinates(byte[] cubies, int[] coordinates) {
+    getCoordinates(cubies, coordinates, new byte[num_corners]);
+  }
+
+  public static void getCoordinates(byte[] cubies, int[] coordinates, byte[] slots) {
+    int orientation = 0;
+    for (int i = num_corners - 1; i >= 0; i--) {
+      slots[i] = (byte) (cubies[i] / 3);
+      if (i < num_corners - 1) {
+        orientation = orientation * 3 + cubies[i] % 3;
+      }
+    }
+    coordinates[CORNER_PERMUTATION] = rank(slots, num_corners - 1, num_corners);
+    coordinates[CORNER_ORIENTATION] = orientation;
+
+    for (int g = 0; g < 2; g++) {
+      orientation = 0;
+      for (int j = 0; j < group_size; j++) {
+        slots[j] = (byte) (cubies[num_corners + g * group_size + j] / 2);
+        orientation |= (cubies[num_corners + g * group_size + j] % 2) << j;
+      }
+      coordinates[g == 0 ? EDGE_POSITION_1 : EDGE_POSITION_2] = rank(slots, group_size, num_edges);
+      coordinates[g == 0 ? EDGE_ORIENTATION_1 : EDGE_ORIENTATION_2] = orientation;
+    }
+  }
+
+  public static int moveCorner(int corner, int move) {
+    return cornerMoves[corner * MOVES + move];
+  }
+
+  public static int moveEdge(int edge, int move) {
+    return edgeMoves[edge * MOVES + move];
+  }
+
+  public static void moveCubies(byte[] cubies, int move, byte[] result) {
+    for (int i = 0; i < num_corners; i++) {
+      result[i] = cornerMoves[cubies[i] * MOVES + move];
+    }
+    for (int i = num_corners; i < CUBIES; i++) {
+      result[i] = edgeMoves[cubies[i] * MOVES + move];
+    }
+  }
+
+  public static void invertCubies(byte[] cubies, byte[] result) {
+    for (int i = 0; i < num_corners; i++) {
+      int slot = cubies[i] / 3;
+      result[slot] = (byte) (i * 3 + inverseCornerAxes[(i * num_corners * 3) + cubies[i]]);
+    }
+    for (int i = 0; i < num_edges; i++) {
+      int slot = cubies[num_corners + i] / 2;
+      result[num_corners + slot] = (byte) (i * 2 + cubies[num_corners + i] % 2);
+    }
+  }
+
+  public static void getStates(byte[] cubies, int[] states) {
+    states[0] = getCornerState(cubies);
+
+    for (int g = 0; g < 2; g++) {
+      int state = 0;
+      int used = 0;
+      for (int j = 0; j < group_size; j++) {
+        int cubie = cubies[num_corners + g * group_size + j];
+        int order = (cubie / 2 + num_edges - g * group_size) % num_edges;
+        int index = order - Integer.bitCount(used & ((1 << order) - 1));
+        used |= 1 << order;
+        state += (index * 2 + cubie % 2) * edgeBases[j];
+      }
+      states[g + 1] = state;
+    }
+  }
+
+  public static int getCornerState(byte[] cubies) {
+    int state = 0;
+    int used = 0;
+    for (int i = 0; i < num_corners - 1; i++) {
+      int slot = cubies[i] / 3;
+      int index = slot - Integer.bitCount(used & ((1 << slot) - 1));
+      used |= 1 << slot;
+      state += (index * 3 + cubies[i] % 3) * cornerBases[i];
+    }
+    return state;
+  }
+
+  public static int getEdgePermutation(byte[] cubies) {
+    int rank = 0;
+    int base = 1;
+    int used = 0;
+    for (int i = 0; i < num_edges - 2; i++) {
+      int slot = cubies[num_corners + i] / 2;
+      rank += (slot - Integer.bitCount(used & ((1 << slot) - 1))) * base;
+      used |= 1 << slot;
+      base *= num_edges - i;
+    }
+    return rank;
+  }
+
+  public static int getEdgeOrientation(byte[] cubies) {
+    int orientation = 0;
+    for (int i = 0; i < num_edges - 1; i++) {
+      orientation |= (cubies[num_corners + i] % 2) << i;
+    }
+    return orientation;
+  }
+
+  public static void getCubies(int[] coordinates, byte[] cubies) {
+    getCubies(coordinates, cubies, new byte[num_corners]);
+  }
+
+  public static void getCubies(int[] coordinates, byte[] cubies, byte[] slots) {
+    unrankCorners(coordinates[CORNER_PERMUTATION], coordinates[CORNER_ORIENTATION], cubies, slots);
+    for (int g = 0; g < 2; g++) {
+      unrank(coordinates[g == 0 ? EDGE_POSITION_1 : EDGE_POSITION_2], slots, group_size, num_edges);
+      int orientation = coordinates[g == 0 ? EDGE_ORIENTATION_1 : EDGE_ORIENTATION_2];
+      for (int j = 0; j < group_size; j++) {
+        cubies[num_corners + g * group_size + j] = (byte) (slots[j] * 2 + ((orientation >> j) & 1));
+      }
+    }
+  }
+
+  public static void unrankCubies(int cornerPermutation, int cornerOrientation, int edgePermutation, int edgeOrientation, byte[] cubies) {
+    byte[] slots = new byte[num_edges];
+    boolean parity = unrankCorners(cornerPermutation, cornerOrientation, cubies, slots);
+
+    unrank(edgePermutation, slots, num_edges - 2, num_edges);
+    int free = ~used(slots, num_edges - 2);
+    slots[num_edges - 2] = (byte) Integer.numberOfTrailingZeros(free);
+    slots[num_edges - 1] = (byte) (31 - Integer.numberOfLeadingZeros(free & ((1 << num_edges) - 1)));
+    if (isOdd(slots, num_edges) != parity) {
+      byte temp = slots[num_edges - 2];
+      slots[num_edges - 2] = slots[num_edges - 1];
+      slots[num_edges - 1] = temp;
+    }
+
+    int flips = 0;
+    for (int i = 0; i < num_edges; i++) {
+      int flip = i < num_edges - 1 ? (edgeOrientation >> i) & 1 : 0;
+      cubies[num_corners + i] = (byte) (slots[i] * 2 + flip);
+      flips |= flip << slots[i];
+    }
+    if (!validEdgeOrientations[flips]) {
+      cubies[CUBIES - 1]++;
+    }
+  }
+
+  private static boolean unrankCorners(int permutation, int orientation, byte[] cubies, byte[] slots) {
+    unrank(permutation, slots, num_corners - 1, num_corners);
+    slots[num_corners - 1] = (byte) Integer.numberOfTrailingZeros(~used(slots, num_corners - 1));
+
+    int axes = 0;
+    for (int i = 0; i < num_corners; i++) {
+      int axis = i < num_corners - 1 ? (orientation / pow(3, i)) % 3 : 0;
+      cubies[i] = (byte) (slots[i] * 3 + axis);
+      axes += axis * pow(3, slots[i]);
+    }
+    int last = slots[num_corners - 1];
+    while (!validCornerAxes[axes]) {
+      axes += pow(3, last);
+      cubies[num_corners - 1]++;
+    }
+    return isOdd(slots, num_corners);
+  }
+
+  static byte[] getCornerPlacement(int cubie, int placement) {
+    return cornerPlacements[cubie][placement].clone();
+  }
+
+  public static void getSolvedCubies(byte[] cubies) {
+    for (int i = 0; i < num_corners; i++) {
+      cubies[i] = (byte) (i * 3);
+    }
+    for (int i = 0; i < num_edges; i++) {
+      cubies[num_corners + i] = (byte) (i * 2);
+    }
+  }
+
+  public static int rank(byte[] slots, int count, int size) {
+    int rank = 0;
+    int base = 1;
+    int used = 0;
+    for (int i = 0; i < count; i++) {
+      int index = slots[i] - Integer.bitCount(used & ((1 << slots[i]) - 1));
+      used |= 1 << slots[i];
+      rank += index * base;
+      base *= size - i;
+    }
+    return rank;
+  }
+
+  public static void unrank(int rank, byte[] slots, int count, int size) {
+    int used = 0;
+    for (int i = 0; i < count; i++) {
+      int index = rank % (size - i);
+      rank /= size - i;
+      int slot = 0;
+      while ((used & (1 << slot)) != 0 || index > 0) {
+        if ((used & (1 << slot)) == 0) {
+          index--;
+        }
+        slot++;
+      }
+      slots[i] = (byte) slot;
+      used |= 1 << slot;
+    }
+  }
+
+  private static void buildCubieMoves() {
+    for (int move = 0; move < MOVES; move++) {
+      byte face = (byte) (move / 3);
+      int turns = (move % 3) + 1;
+
+      for (int slot = 0; slot < num_corners; slot++) {
+        for (int axis = 0; axis < 3; axis++) {
+          byte[] position = RubiksCube.cubies[slot].clone();
+          byte sticker = 0;
+          for (byte f : position) {
+            if (f / 2 == axis) {
+              sticker = f;
+            }
+          }
+          for (int t = 0; t < turns && contains(position, face); t++) {
+            turn(position, face);
+            sticker = turn(sticker, face);
+          }
+          cornerMoves[(slot * 3 + axis) * MOVES + move] = (byte) (findSlot(position, 0, num_corners) * 3 + sticker / 2);
+        }
+      }
+
+      for (int slot = 0; slot < num_edges; slot++) {
+        for (int orientation = 0; orientation < 2; orientation++) {
+          byte[] position = RubiksCube.cubies[num_corners + slot].clone();
+          byte sticker = position[orientation];
+          for (int t = 0; t < turns && contains(position, face); t++) {
+            turn(position, face);
+            sticker = turn(sticker, face);
+          }
+          int s = findSlot(position, num_corners, num_edges);
+          int o = RubiksCube.cubies[num_corners + s][0] == sticker ? 0 : 1;
+          edgeMoves[(slot * 2 + orientation) * MOVES + move] = (byte) (s * 2 + o);
+        }
+      }
+    }
+  }
+
+  private static void buildInverseTables() {
+    for (int i = 0; i < num_corners; i++) {
+      byte[][] placements = cornerPlacements[i];
+      LinkedList<byte[]> frontier = new LinkedList<>();
+      frontier.add(RubiksCube.cubies[i].clone());
+      while (!frontier.isEmpty()) {
+        byte[] position = frontier.remove();
+        int placement = findSlot(position, 0, num_corners) * 3 + position[0] / 2;
+        if (placements[placement] != null) {
+          continue;
+        }
+        placements[placement] = position;
+        for (byte face : RubiksCube.getFaces()) {
+          if (contains(position, face)) {
+            byte[] next = position.clone();
+            turn(next, face);
+            frontier.add(next);
+          }
+        }
+      }
+
+      for (int placement = 0; placement < placements.length; placement++) {
+        byte[] position = placements[placement];
+        byte[] home = RubiksCube.cubies[placement / 3];
+        for (int k = 0; k < position.length; k++) {
+          if (position[k] == home[0]) {
+            inverseCornerAxes[i * num_corners * 3 + placement] = (byte) (RubiksCube.cubies[i][k] / 2);
+          }
+        }
+      }
+    }
+  }
+
+  private static void buildValidOrientations() {
+    LinkedList<Integer> frontier = new LinkedList<>();
+    validCornerAxes[0] = true;
+    frontier.add(0);
+    while (!frontier.isEmpty()) {
+      int axes = frontier.remove();
+      for (int move = 0; move < MOVES; move++) {
+        int[] moved = new int[num_corners];
+        for (int slot = 0, a = axes; slot < num_corners; slot++, a /= 3) {
+          int result = cornerMoves[(slot * 3 + a % 3) * MOVES + move];
+          moved[result / 3] = result % 3;
+        }
+        int next = 0;
+        for (int slot = num_corners - 1; slot >= 0; slot--) {
+          next = next * 3 + moved[slot];
+        }
+        if (!validCornerAxes[next]) {
+          validCornerAxes[next] = true;
+          frontier.add(next);
+        }
+      }
+    }
+
+    validEdgeOrientations[0] = true;
+    frontier.add(0);
+    while (!frontier.isEmpty()) {
+      int flips = frontier.remove();
+      for (int move = 0; move < MOVES; move++) {
+        int next = 0;
+        for (int slot = 0; slot < num_edges; slot++) {
+          int result = edgeMoves[(slot * 2 + ((flips >> slot) & 1)) * MOVES + move];
+          next |= (result % 2) << (result / 2);
+        }
+        if (!validEdgeOrientations[next]) {
+          validEdgeOrientations[next] = true;
+          frontier.add(next);
+        }
+      }
+    }
+  }
+
+  private static void buildCornerTables() {
+    int[] bases = cornerBases;
+
+    byte[] slots = new byte[num_corners];
+    byte[] moved = new byte[num_corners];
+    for (int permutation = 0; permutation < CORNER_PERMUTATIONS; permutation++) {
+      unrank(permutation, slots, num_corners - 1, num_corners);
+      slots[num_corners - 1] = (byte) Integer.numberOfTrailingZeros(~used(slots, num_corners - 1));
+
+      int state = 0;
+      int rank = permutation;
+      for (int i = 0; i < num_corners - 1; i++) {
+        state += (rank % (num_corners - i)) * 3 * bases[i];
+        rank /= num_corners - i;
+      }
+      cornerPermutationStates[permutation] = state;
+
+      for (int move = 0; move < MOVES; move++) {
+        int mask = 0;
+        for (int i = 0; i < num_corners; i++) {
+          moved[i] = (byte) (cornerMoves[slots[i] * 3 * MOVES + move] / 3);
+          if (i < num_corners - 1 && moved[i] != slots[i]) {
+            mask |= 1 << i;
+          }
+        }
+        int axis = move / 6;
+        boolean twisted = (move % 3) != 1;
+        cornerPermutationMoves[permutation * MOVES + move] = rank(moved, num_corners - 1, num_corners);
+        cornerTwists[permutation * MOVES + move] = (short) (twisted ? axis * 128 + mask : 0);
+      }
+    }
+
+    for (int orientation = 0; orientation < CORNER_ORIENTATIONS; orientation++) {
+      int state = 0;
+      int o = orientation;
+      for (int i = 0; i < num_corners - 1; i++) {
+        state += (o % 3) * bases[i];
+        o /= 3;
+      }
+      cornerOrientationStates[orientation] = state;
+    }
+
+    for (int selector = 0; selector < twist_selectors; selector++) {
+      int axis = selector / 128;
+      int mask = selector % 128;
+      for (int orientation = 0; orientation < CORNER_ORIENTATIONS; orientation++) {
+        int result = 0;
+        int base = 1;
+        int o = orientation;
+        for (int i = 0; i < num_corners - 1; i++) {
+          int digit = o % 3;
+          o /= 3;
+          if ((mask & (1 << i)) != 0) {
+            digit = (2 * axis - digit + 3) % 3;
+          }
+          result += digit * base;
+          base *= 3;
+        }
+        cornerOrientationMoves[selector * CORNER_ORIENTATIONS + orientation] = (char) result;
+      }
+    }
+  }
+
+  private static void buildEdgeTables() {
+    int[] bases = edgeBases;
+
+    byte[] slots = new byte[group_size];
+    byte[] moved = new byte[group_size];
+    for (int position = 0; position < EDGE_POSITIONS; position++) {
+      unrank(position, slots, group_size, num_edges);
+
+      for (int move = 0; move < MOVES; move++) {
+        int flips = 0;
+        for (int j = 0; j < group_size; j++) {
+          int result = edgeMoves[slots[j] * 2 * MOVES + move];
+          moved[j] = (byte) (result / 2);
+          flips |= (result % 2) << j;
+        }
+        edgePositionMoves[position * MOVES + move] = rank(moved, group_size, num_edges);
+        edgeFlips[position * MOVES + move] = (byte) flips;
+      }
+
+      for (int g = 0; g < 2; g++) {
+        for (int j = 0; j < group_size; j++) {
+          moved[j] = (byte) ((slots[j] + num_edges - g * group_size) % num_edges);
+        }
+        int state = 0;
+        int rank = rank(moved, group_size, num_edges);
+        for (int j = 0; j < group_size; j++) {
+          state += (rank % (num_edges - j)) * 2 * bases[j];
+          rank /= num_edges - j;
+        }
+        edgePositionStates[g][position] = state;
+      }
+    }
+
+    for (int orientation = 0; orientation < EDGE_ORIENTATIONS; orientation++) {
+      int state = 0;
+      for (int j = 0; j < group_size; j++) {
+        state += ((orientation >> j) & 1) * bases[j];
+      }
+      edgeOrientationStates[orientation] = state;
+    }
+  }
+
+  private static boolean isOdd(byte[] slots, int count) {
+    boolean odd = false;
+    for (int i = 0; i < count; i++) {
+      for (int j = i + 1; j < count; j++) {
+        odd ^= slots[i] > slots[j];
+      }
+    }
+    return odd;
+  }
+
+  private static int pow(int base, int exponent) {
+    int result = 1;
+    for (int i = 0; i < exponent; i++) {
+      result *= base;
+    }
+    return result;
+  }
+
+  private static int used(byte[] slots, int count) {
+    int used = 0;
+    for (int i = 0; i < count; i++) {
+      used |= 1 << slots[i];
+    }
+    return used;
+  }
+
+  private static boolean contains(byte[] position, byte face) {
+    for (byte f : position) {
+      if (f == face) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void turn(byte[] position, byte face) {
+    for (int i = 0; i < position.length; i++) {
+      position[i] = turn(position[i], face);
+    }
+  }
+
+  private static byte turn(byte f, byte face) {
+    byte[] sequence = RubiksCube.sequences[face];
+    for (int j = 0; j < sequence.length; j++) {
+      if (sequence[j] == f) {
+        return sequence[(j + 1) % sequence.length];
+      }
+    }
+    return f;
+  }
+
+  private static int findSlot(byte[] position, int from, int count) {
+    for (int slot = 0; slot < count; slot++) {
+      byte[] cubie = RubiksCube.cubies[from + slot];
+      boolean same = true;
+      for (byte f : cubie) {
+        same &= contains(position, f);
+      }
+      if (same) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+}
@@ -12,7 +12,7 @@ public class RubiksCube {
   public static final byte RED = 4;
   public static final byte ORANGE = 5;
   private static final byte[] faces = {YELLOW, WHITE, GREEN, BLUE, RED, ORANGE};
-  private static final byte[][] sequences = {
+  static final byte[][] sequences = {
     {RED, BLUE, ORANGE, GREEN},
     {RED, GREEN, ORANGE, BLUE},
     {RED, YELLOW, ORANGE, WHITE},
@@ -20,7 +20,7 @@ public class RubiksCube {
     {WHITE, BLUE, YELLOW, GREEN},
     {YELLOW, BLUE, WHITE, GREEN}
   };
-  private static final byte[][] cubies = {
+  static final byte[][] cubies = {
     {YELLOW, GREEN, RED},
     {YELLOW, BLUE, RED},
     {YELLOW, BLUE, ORANGE},
@@ -46,9 +46,6 @@ public class RubiksCube {
   private static final int num_edges = 12;
   private final byte[][] corners;
   private final byte[][][] edges;
-  private static LinkedList<byte[]> defaultCornerPositions;
-  private static LinkedList<byte[]> defaultEdgePositions1;
-  private static LinkedList<byte[]> defaultEdgePositions2;
 
   public RubiksCube() {
     corners = new byte[num_corners][3];
@@ -78,6 +75,50 @@ public class RubiksCube {
     }
   }
 
+  public RubiksCube(byte[] c) {
+    corners = new byte[num_corners][];
+    for (int i = 0; i < corners.length; i++) {
+      corners[i] = MoveTables.getCornerPlacement(i, c[i]);
+    }
+
+    edges = new byte[2][num_edges / 2][2];
+    for (int i = 0; i < num_edges; i++) {
+      byte[] slot = cubies[num_corners + c[num_corners + i] / 2];
+      int orientation = c[num_corners + i] % 2;
+      edges[i / (num_edges / 2)][i % (num_edges / 2)] = new byte[]{slot[orientation], slot[1 - orientation]};
+    }
+  }
+
+  public RubiksCube relativeTo(RubiksCube target) {
+    RubiksCube cube = new RubiksCube(this);
+    for (int i = 0; i < cubies.length; i++) {
+      int from = i < num_corners ? 0 : num_corners;
+      int count = i < num_corners ? num_corners : num_edges;
+      for (int c = from; c < from + count; c++) {
+        byte[] placed = target.getCubie(c);
+        if (!haveSameElements(placed, cubies[i])) {
+          continue;
+        }
+        for (int j = 0; j < cubies[i].length; j++) {
+          for (int k = 0; k < placed.length; k++) {
+            if (placed[k] == cubies[i][j]) {
+              cube.getCubie(i)[j] = getCubie(c)[k];
+            }
+          }
+        }
+        break;
+      }
+    }
+    return cube;
+  }
+
+  private byte[] getCubie(int i) {
+    if (i < num_corners) {
+      return corners[i];
+    }
+    return edges[(i - num_corners) / (num_edges / 2)][(i - num_corners) % (num_edges / 2)];
+  }
+
   private byte charToByte(char c) {
     switch (c) {
       case 'Y':
@@ -228,74 +269,74 @@ public class RubiksCube {
 
   public int[] getStates() {
     int[] states = new int[3];
-
-    rebuildDefaultCornerPositions();
-    states[0] = getCornerState(corners, defaultCornerPositions);
-    rebuildDefaultEdgePositions1();
-    states[1] = getEdgeState(edges[0], defaultEdgePositions1);
-    rebuildDefaultEdgePositions2();
-    states[2] = getEdgeState(edges[1], defaultEdgePositions2);
+    getStates(states);
     return states;
   }
 
-  private int getCornerState(byte[][] positions, LinkedList<byte[]> defaults) {
+  public void getStates(int[] states) {
+    states[0] = getCornerState();
+    states[1] = getEdgeState(edges[0], 0);
+    states[2] = getEdgeState(edges[1], num_edges / 2);
+  }
+
+  public void getCoordinates(int[] coordinates) {
+    byte[] c = new byte[num_corners + num_edges];
+    getCubies(c);
+    MoveTables.getCoordinates(c, coordinates);
+  }
+
+  public void getCubies(byte[] c) {
+    for (int i = 0; i < num_corners; i++) {
+      c[i] = (byte) (findSlot(corners[i], 0, num_corners) * 3 + corners[i][0] / 2);
+    }
+
+    for (int i = 0; i < num_edges; i++) {
+      byte[] position = edges[i / (num_edges / 2)][i % (num_edges / 2)];
+      int slot = findSlot(position, num_corners, num_edges);
+      c[num_corners + i] = (byte) (slot * 2 + getEdgeOrientation(cubies[num_corners + slot], position));
+    }
+  }
+
+  private static int findSlot(byte[] position, int from, int count) {
+    int slot = 0;
+    while (slot < count && !haveSameElements(cubies[from + slot], position)) {
+      slot++;
+    }
+    return slot;
+  }
+
+  private int getCornerState() {
     int state = 0;
     int base = 1;
-    for (int i = 0; i < positions.length - 1; i++) {
-      byte[] position = positions[i];
-      int index = 0;
-      while (!haveSameElements(defaults.get(index), position)) {
-        index++;
-      }
+    int used = 0;
+    for (int i = 0; i < num_corners - 1; i++) {
+      byte[] position = corners[i];
+      int slot = findSlot(position, 0, num_corners);
+      int index = slot - Integer.bitCount(used & ((1 << slot) - 1));
+      used |= 1 << slot;
       state += ((index * 3) + (position[0] / 2)) * base;
-      base *= defaults.size() * 3;
-      defaults.remove(index);
+      base *= (num_corners - i) * 3;
     }
     return state;
   }
 
-  private int getEdgeState(byte[][] positions, LinkedList<byte[]> defaults) {
+  private int getEdgeState(byte[][] positions, int offset) {
     int state = 0;
     int base = 1;
+    int used = 0;
     for (int i = 0; i < positions.length; i++) {
       byte[] position = positions[i];
-      int index = 0;
-      while (!haveSameElements(defaults.get(index), position)) {
-        index++;
-      }
-      int orientation = getEdgeOrientation(defaults.get(index), position);
+      int slot = findSlot(position, num_corners, num_edges);
+      int order = (slot + num_edges - offset) % num_edges;
+      int index = order - Integer.bitCount(used & ((1 << order) - 1));
+      used |= 1 << order;
+      int orientation = getEdgeOrientation(cubies[num_corners + slot], position);
       state += ((index * 2) + orientation) * base;
-      base *= defaults.size() * 2;
-      defaults.remove(index);
+      base *= (num_edges - i) * 2;
     }
     return state;
   }
 
-  private static void rebuildDefaultCornerPositions() {
-    defaultCornerPositions = new LinkedList<>();
-    for (int i = 0; i < 8; i++) {
-      defaultCornerPositions.add(Arrays.copyOf(cubies[i], cubies[i].length));
-    }
-  }
-
-  private static void rebuildDefaultEdgePositions1() {
-    defaultEdgePositions1 = new LinkedList<>();
-    for (int i = 0; i < num_edges; i++) {
-      defaultEdgePositions1.add(Arrays.copyOf(cubies[num_corners + i], cubies[num_corners + i].length));
-    }
-  }
-
-  private static void rebuildDefaultEdgePositions2() {
-    defaultEdgePositions2 = new LinkedList<>();
-    for (int i = 0; i < num_edges / 2; i++) {
-      defaultEdgePositions2.add(Arrays.copyOf(cubies[num_corners + num_edges / 2 + i], cubies[num_corners + num_edges / 2 + i].length));
-    }
-
-    for (int i = 0; i < num_edges / 2; i++) {
-      defaultEdgePositions2.add(Arrays.copyOf(cubies[num_corners + i], cubies[num_corners + i].length));
-    }
-  }
-
   private static boolean hasFace(byte[] position, byte face) {
     for (byte f : position) {
       if (f == face) {
@@ -1,7 +1,6 @@
 package rubikscube;
 
 import java.util.Arrays;
-import java.util.LinkedList;
 
 public class RubiksCubeCorners {
 
@@ -32,7 +31,6 @@ public class RubiksCubeCorners {
   };
   private static final int num_corners = 8;
   private final byte[][] corners;
-  private static LinkedList<byte[]> defaults;
 
   public RubiksCubeCorners() {
     corners = new byte[num_corners][3];
@@ -102,34 +100,23 @@ public class RubiksCubeCorners {
   }
 
   public int getState() {
-    rebuildDefaults();
-    return getCornerState(corners, defaults);
-
-  }
-
-  private int getCornerState(byte[][] positions, LinkedList<byte[]> d) {
     int state = 0;
     int base = 1;
-    for (int i = 0; i < positions.length - 1; i++) {
-      byte[] position = positions[i];
-      int index = 0;
-      while (!haveSameElements(d.get(index), position)) {
-        index++;
+    int used = 0;
+    for (int i = 0; i < num_corners - 1; i++) {
+      byte[] position = corners[i];
+      int slot = 0;
+      while (!haveSameElements(cubies[slot], position)) {
+        slot++;
       }
+      int index = slot - Integer.bitCount(used & ((1 << slot) - 1));
+      used |= 1 << slot;
       state += ((index * 3) + (position[0] / 2)) * base;
-      base *= d.size() * 3;
-      d.remove(index);
+      base *= (num_corners - i) * 3;
     }
     return state;
   }
 
-  private static void rebuildDefaults() {
-    defaults = new LinkedList<>();
-    for (int i = 0; i < 8; i++) {
-      defaults.add(Arrays.copyOf(cubies[i], cubies[i].length));
-    }
-  }
-
   private static boolean hasFace(byte[] position, byte face) {
     for (byte f : position) {
       if (f == face) {
@@ -176,14 +163,4 @@ public class RubiksCubeCorners {
 
     return s;
   }
-
-  private static String arrayToString(LinkedList<byte[]> array) {
-    String s = "";
-
-    for (byte[] b : array) {
-      s += arrayToString(b) + " ";
-    }
-
-    return s;
-  }
 }
\ No newline at end of file
@@ -0,0 +1,337 @@
+package rubikscube.benchmark;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import rubikscube.RubiksCube;
+import rubikscube.heuristic.HeuristicGenerator;
+import rubikscube.heuristic.HeuristicProvider;
+import rubikscube.heuristic.PatternLayout;
+import rubikscube.solver.CostEstimator;
+import rubikscube.solver.OptimalSolver;
+import rubikscube.solver.SearchMode;
+import rubikscube.solver.SearchStatistics;
+import rubikscube.solver.SolveLimits;
+import rubikscube.solver.SolveResult;
+import rubikscube.solver.SolveScheduler;
+import rubikscube.solver.SolveStatus;
+
+public class BenchmarkRunner {
+
+  private static final int MIN_BUCKET = 10;
+  private static final int MAX_BUCKET = 18;
+  private static final long allocation_slack = 64;
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.out.println("Usage: BenchmarkRunner corpus <file> [seed] [per bucket] [--optimal] [--max-bucket n]");
+      System.out.println("       BenchmarkRunner run <file> [--dual] [--ordering] [--layout name] [--mode name] [--limit n] [--output file]");
+      System.out.println("       BenchmarkRunner check <max length> [--count n] [--no-tables]");
+      System.out.println("       BenchmarkRunner schedule <file> [--threads n] [--calibrate bucket] [--reject nodes] [--fifo] [--limit n]");
+      return;
+    }
+
+    if (args[0].equals("corpus")) {
+      long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+      int perBucket = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+      boolean optimal = HeuristicGenerator.hasFlag(args, "--optimal");
+      int maxBucket = HeuristicGenerator.getIntArgument(args, "--max-bucket", MAX_BUCKET);
+      writeCorpus(args[1], seed, perBucket, maxBucket, optimal);
+    } else if (args[0].equals("run")) {
+      OptimalSolver solver = OptimalSolver.getInstance();
+      solver.setDualLookups(HeuristicGenerator.hasFlag(args, "--dual"));
+      solver.setSuccessorOrdering(HeuristicGenerator.hasFlag(args, "--ordering"));
+      String layout = HeuristicGenerator.getArgument(args, "--layout", null);
+      if (layout != null) {
+        solver.setPatternLayout(PatternLayout.valueOf(layout));
+      }
+      String mode = HeuristicGenerator.getArgument(args, "--mode", null);
+      if (mode != null) {
+        solver.setSearchMode(SearchMode.valueOf(mode));
+      }
+      int limit = HeuristicGenerator.getIntArgument(args, "--limit", Integer.MAX_VALUE);
+      String output = HeuristicGenerator.getArgument(args, "--output", null);
+
+      Map<Integer, List<byte[]>> corpus = readCorpus(args[1], limit);
+      try (PrintWriter writer = output == null ? new PrintWriter(System.out) : new PrintWriter(new FileWriter(output))) {
+        run(solver, corpus, writer);
+      }
+    } else if (args[0].equals("check")) {
+      int count = HeuristicGenerator.getIntArgument(args, "--count", 5);
+      OptimalSolver solver = OptimalSolver.getInstance();
+      if (HeuristicGenerator.hasFlag(args, "--no-tables")) {
+        solver.setProviders(new ArrayList<HeuristicProvider>());
+      }
+      check(solver, Integer.parseInt(args[1]), count);
+    } else if (args[0].equals("schedule")) {
+      int limit = HeuristicGenerator.getIntArgument(args, "--limit", Integer.MAX_VALUE);
+      int threads = HeuristicGenerator.getIntArgument(args, "--threads", 1);
+      int calibrate = HeuristicGenerator.getIntArgument(args, "--calibrate", 0);
+      double reject = Double.parseDouble(HeuristicGenerator.getArgument(args, "--reject", "0"));
+      Map<Integer, List<byte[]>> corpus = readCorpus(args[1], limit);
+      schedule(OptimalSolver.getInstance(), corpus, threads, calibrate, reject, !HeuristicGenerator.hasFlag(args, "--fifo"));
+    }
+  }
+
+  private static void writeCorpus(String file, long seed, int perBucket, int maxBucket, boolean optimal) throws IOException {
+    ScrambleGenerator generator = new ScrambleGenerator(seed);
+    OptimalSolver solver = optimal ? OptimalSolver.getInstance() : null;
+
+    try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+      writer.println("# Scramble corpus, seed " + seed + ", " + perBucket + " per bucket, random walks of "
+              + MIN_BUCKET + " to " + maxBucket + " moves");
+      writer.println(optimal ? "# Buckets are optimal solution lengths"
+              : "# Buckets are canonical random-walk lengths, an upper bound on the optimal length");
+      writer.println("# <bucket> <moves>");
+      for (int bucket = MIN_BUCKET; bucket <= maxBucket; bucket++) {
+        for (int i = 0; i < perBucket; i++) {
+          byte[] moves = generator.randomWalk(bucket);
+          int length = bucket;
+          if (optimal) {
+            solver.solve(ScrambleGenerator.apply(moves));
+            length = solver.getStatistics().getSolutionLength();
+          }
+          writer.println(length + " " + ScrambleGenerator.format(moves));
+        }
+      }
+    }
+  }
+
+  private static Map<Integer, List<byte[]>> readCorpus(String file, int limit) throws IOException {
+    Map<Integer, List<byte[]>> corpus = new TreeMap<>();
+    try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        String[] tokens = line.split("\\s+");
+        int bucket = Integer.parseInt(tokens[0]);
+        if (!corpus.containsKey(bucket)) {
+          corpus.put(bucket, new ArrayList<byte[]>());
+        }
+        if (corpus.get(bucket).size() < limit) {
+          corpus.get(bucket).add(ScrambleGenerator.parse(tokens, 1));
+        }
+      }
+    }
+    return corpus;
+  }
+
+  private static void run(OptimalSolver solver, Map<Integer, List<byte[]>> corpus, PrintWriter writer) {
+    writer.println("bucket,scrambles,wall_ms,nodes_expanded,nodes_per_second,peak_heap_bytes,mean_solution_length,max_solution_length");
+    writer.flush();
+    for (Map.Entry<Integer, List<byte[]>> entry : corpus.entrySet()) {
+      resetPeakHeap();
+      long nanos = 0;
+      long nodes = 0;
+      long lengths = 0;
+      int maxLength = 0;
+      for (byte[] moves : entry.getValue()) {
+        RubiksCube cube = ScrambleGenerator.apply(moves);
+        long start = System.nanoTime();
+        solver.solve(cube);
+        nanos += System.nanoTime() - start;
+
+        SearchStatistics statistics = solver.getStatistics();
+        nodes += statistics.getNodesExpanded();
+        lengths += statistics.getSolutionLength();
+        maxLength = Math.max(maxLength, statistics.getSolutionLength());
+      }
+
+      int count = entry.getValue().size();
+      writer.println(entry.getKey() + "," + count + "," + (nanos / 1000000) + "," + nodes + ","
+              + (nanos > 0 ? (long) (nodes * 1e9 / nanos) : 0) + "," + getPeakHeap() + ","
+              + String.format("%.2f", (double) lengths / count) + "," + maxLength);
+      writer.flush();
+    }
+  }
+
+  private static void check(OptimalSolver solver, int maxLength, int count) {
+    ScrambleGenerator generator = new ScrambleGenerator(1);
+    int failures = 0;
+    for (int length = 0; length <= maxLength; length++) {
+      for (int i = 0; i < count; i++) {
+        byte[] scramble = generator.randomWalk(length);
+        RubiksCube cube = ScrambleGenerator.apply(scramble);
+        int optimal = -1;
+        for (SearchMode mode : SearchMode.values()) {
+          solver.setSearchMode(mode);
+          SolveResult result = solver.solve(cube, SolveLimits.unlimited());
+          byte[] moves = result.getMoves();
+          boolean solved = result.getStatus() == SolveStatus.SOLVED && solves(cube, moves);
+          if (optimal < 0 && solved) {
+            optimal = moves.length;
+          }
+          if (!solved || moves.length != optimal) {
+            failures++;
+            System.out.println(mode + " " + result.getStatus() + " in " + moves.length + " moves for "
+                    + ScrambleGenerator.format(scramble));
+          }
+        }
+      }
+    }
+    System.out.println(failures == 0 ? "All search modes agree" : failures + " checks failed");
+    checkAllocation(solver, new ScrambleGenerator(1).randomWalk(maxLength));
+  }
+
+  private static void checkAllocation(OptimalSolver solver, byte[] scramble) {
+    RubiksCube cube = ScrambleGenerator.apply(scramble);
+    solver.setSearchMode(SearchMode.DEPTH_FIRST);
+    boolean dualLookups = solver.isDualLookups();
+    for (boolean dual : new boolean[] {false, true}) {
+      solver.setDualLookups(dual);
+      solver.solve(cube, SolveLimits.unlimited());
+      solver.solve(cube, SolveLimits.unlimited());
+      long bytes = solver.getStatistics().getAllocatedBytes();
+      if (bytes < 0) {
+        System.out.println("Allocation counter unavailable, skipping the allocation check");
+        break;
+      }
+      System.out.println((bytes <= allocation_slack ? "Depth-first search allocates " : "There is an error: depth-first search allocates ")
+              + bytes + " bytes on a repeated solve" + (dual ? " with dual lookups" : ""));
+    }
+    solver.setDualLookups(dualLookups);
+  }
+
+  private static boolean solves(RubiksCube cube, byte[] moves) {
+    RubiksCube copy = new RubiksCube(cube);
+    for (byte move : moves) {
+      copy.rotateFace((byte) (move / 3), (move % 3) + 1);
+    }
+    return copy.isSolved();
+  }
+
+  private static void schedule(OptimalSolver solver, Map<Integer, List<byte[]>> corpus, int threads, int calibrate,
+          double reject, boolean shortestFirst) {
+    CostEstimator estimator = new CostEstimator(solver);
+    if (calibrate > 0) {
+      List<RubiksCube> samples = new ArrayList<>();
+      for (Map.Entry<Integer, List<byte[]>> entry : corpus.entrySet()) {
+        if (entry.getKey() <= calibrate) {
+          for (byte[] moves : entry.getValue()) {
+            samples.add(ScrambleGenerator.apply(moves));
+          }
+        }
+      }
+      estimator.calibrate(samples, SolveLimits.unlimited());
+      System.out.println("Calibrated coefficients: " + Arrays.toString(estimator.getCoefficients()));
+    }
+
+    List<Integer> buckets = new ArrayList<>();
+    List<RubiksCube> cubes = new ArrayList<>();
+    for (Map.Entry<Integer, List<byte[]>> entry : corpus.entrySet()) {
+      for (byte[] moves : entry.getValue()) {
+        buckets.add(entry.getKey());
+        cubes.add(ScrambleGenerator.apply(moves));
+      }
+    }
+    List<Integer> order = new ArrayList<>();
+    for (int i = 0; i < cubes.size(); i++) {
+      order.add(i);
+    }
+    Collections.shuffle(order, new Random(cubes.size()));
+
+    Map<Integer, long[]> latencies = new TreeMap<>();
+    try (SolveScheduler scheduler = new SolveScheduler(solver, estimator, threads, reject)) {
+      scheduler.setShortestFirst(shortestFirst);
+      List<Future<SolveResult>> futures = new ArrayList<>();
+      long start = System.nanoTime();
+      for (int i : order) {
+        try {
+          futures.add(scheduler.submit(cubes.get(i), SolveLimits.unlimited()));
+        } catch (RejectedExecutionException e) {
+          futures.add(null);
+        }
+      }
+
+      long[] completed = new long[futures.size()];
+      int remaining = futures.size();
+      while (remaining > 0) {
+        for (int n = 0; n < futures.size(); n++) {
+          if (completed[n] == 0 && (futures.get(n) == null || futures.get(n).isDone())) {
+            completed[n] = Math.max(1, (System.nanoTime() - start) / 1000000);
+            remaining--;
+          }
+        }
+        try {
+          Thread.sleep(1);
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+
+      for (int n = 0; n < order.size(); n++) {
+        int bucket = buckets.get(order.get(n));
+        if (!latencies.containsKey(bucket)) {
+          latencies.put(bucket, new long[4]);
+        }
+        long[] totals = latencies.get(bucket);
+        totals[0]++;
+        if (futures.get(n) == null) {
+          totals[3]++;
+          continue;
+        }
+        try {
+          totals[2] += futures.get(n).get().getNodesExpanded();
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof RejectedExecutionException) {
+            totals[3]++;
+            continue;
+          }
+          System.out.println("There is an error solving a scramble.");
+        } catch (InterruptedException e) {
+          System.out.println("There is an error solving a scramble.");
+        }
+        totals[1] += completed[n];
+      }
+    }
+
+    System.out.println("bucket,scrambles,mean_completion_ms,mean_nodes_expanded,rejected");
+    long total = 0;
+    long count = 0;
+    for (Map.Entry<Integer, long[]> entry : latencies.entrySet()) {
+      long[] totals = entry.getValue();
+      long solved = totals[0] - totals[3];
+      System.out.println(entry.getKey() + "," + totals[0] + "," + (solved > 0 ? totals[1] / solved : 0) + ","
+              + (solved > 0 ? totals[2] / solved : 0) + "," + totals[3]);
+      total += totals[1];
+      count += solved;
+    }
+    System.out.println("Mean completion: " + (count > 0 ? total / count : 0) + "ms");
+  }
+
+  private static void resetPeakHeap() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+  private static long getPeakHeap() {
+    long peak = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    return peak;
+  }
+}
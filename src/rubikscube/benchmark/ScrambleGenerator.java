@@ -0,0 +1,60 @@
+package rubikscube.benchmark;
+
+import java.util.Random;
+import rubikscube.MoveTables;
+import rubikscube.RubiksCube;
+
+public class ScrambleGenerator {
+
+  private static final String colors = "YWGBRO";
+  private final Random random;
+
+  public ScrambleGenerator(long seed) {
+    random = new Random(seed);
+  }
+
+  public RubiksCube randomState() {
+    byte[] cubies = new byte[MoveTables.CUBIES];
+    MoveTables.unrankCubies(random.nextInt(MoveTables.CORNER_PERMUTATIONS), random.nextInt(MoveTables.CORNER_ORIENTATIONS),
+            random.nextInt(MoveTables.CUBE_EDGE_PERMUTATIONS), random.nextInt(MoveTables.CUBE_EDGE_ORIENTATIONS), cubies);
+    return new RubiksCube(cubies);
+  }
+
+  public byte[] randomWalk(int length) {
+    byte[] moves = new byte[length];
+    int previous = -1;
+    for (int i = 0; i < length; i++) {
+      int face;
+      do {
+        face = random.nextInt(RubiksCube.getFaces().length);
+      } while (face == previous || face == (previous ^ 1) && face < previous);
+      moves[i] = (byte) (face * 3 + random.nextInt(3));
+      previous = face;
+    }
+    return moves;
+  }
+
+  public static RubiksCube apply(byte[] moves) {
+    RubiksCube cube = new RubiksCube();
+    for (byte move : moves) {
+      cube.rotateFace((byte) (move / 3), (move % 3) + 1);
+    }
+    return cube;
+  }
+
+  public static String format(byte[] moves) {
+    String s = "";
+    for (byte move : moves) {
+      s += RubiksCube.getColor((byte) (move / 3)) + "" + ((move % 3) + 1) + " ";
+    }
+    return s.trim();
+  }
+
+  public static byte[] parse(String[] tokens, int from) {
+    byte[] moves = new byte[tokens.length - from];
+    for (int i = from; i < tokens.length; i++) {
+      moves[i - from] = (byte) (colors.indexOf(tokens[i].charAt(0)) * 3 + (tokens[i].charAt(1) - '1'));
+    }
+    return moves;
+  }
+}
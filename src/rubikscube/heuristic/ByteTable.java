@@ -0,0 +1,103 @@
+package rubikscube.heuristic;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class ByteTable {
+
+  public static final int HUGE_PAGE_BYTES = 1 << 21;
+  private static final int chunk_bits = 30;
+  private static final int chunk_bytes = 1 << chunk_bits;
+  private static final int chunk_mask = chunk_bytes - 1;
+  private static final int copy_bytes = 1 << 16;
+  private static final boolean huge_pages = Boolean.getBoolean("rubikscube.hugepages");
+  private final ByteBuffer[] chunks;
+  private final ByteBuffer first;
+  private final long size;
+
+  public ByteTable(long size, boolean hugePages) {
+    this.size = size;
+    chunks = new ByteBuffer[(int) ((size + chunk_mask) >>> chunk_bits)];
+    for (int c = 0; c < chunks.length; c++) {
+      int length = (int) Math.min(chunk_bytes, size - ((long) c << chunk_bits));
+      chunks[c] = hugePages ? allocateAligned(length) : ByteBuffer.allocateDirect(length);
+    }
+    first = chunks.length > 0 ? chunks[0] : ByteBuffer.allocateDirect(0);
+  }
+
+  public ByteTable(long size) {
+    this(size, huge_pages);
+  }
+
+  public long size() {
+    return size;
+  }
+
+  public byte get(long index) {
+    if (index < chunk_bytes) {
+      return first.get((int) index);
+    }
+    return chunks[(int) (index >>> chunk_bits)].get((int) index & chunk_mask);
+  }
+
+  public void set(long index, byte value) {
+    if (index < chunk_bytes) {
+      first.put((int) index, value);
+    } else {
+      chunks[(int) (index >>> chunk_bits)].put((int) index & chunk_mask, value);
+    }
+  }
+
+  public void fill(byte value) {
+    byte[] block = new byte[copy_bytes];
+    for (int i = 0; i < block.length; i++) {
+      block[i] = value;
+    }
+    for (ByteBuffer chunk : chunks) {
+      for (int offset = 0; offset < chunk.capacity(); offset += block.length) {
+        chunk.put(offset, block, 0, Math.min(block.length, chunk.capacity() - offset));
+      }
+    }
+  }
+
+  public void copyFrom(ByteTable source) {
+    byte[] block = new byte[copy_bytes];
+    for (int c = 0; c < chunks.length; c++) {
+      for (int offset = 0; offset < chunks[c].capacity(); offset += block.length) {
+        int length = Math.min(block.length, chunks[c].capacity() - offset);
+        source.chunks[c].get(offset, block, 0, length);
+        chunks[c].put(offset, block, 0, length);
+      }
+    }
+  }
+
+  public void read(DataInput in) throws IOException {
+    byte[] block = new byte[copy_bytes];
+    for (ByteBuffer chunk : chunks) {
+      for (int offset = 0; offset < chunk.capacity(); offset += block.length) {
+        int length = Math.min(block.length, chunk.capacity() - offset);
+        in.readFully(block, 0, length);
+        chunk.put(offset, block, 0, length);
+      }
+    }
+  }
+
+  public void write(DataOutput out) throws IOException {
+    byte[] block = new byte[copy_bytes];
+    for (ByteBuffer chunk : chunks) {
+      for (int offset = 0; offset < chunk.capacity(); offset += block.length) {
+        int length = Math.min(block.length, chunk.capacity() - offset);
+        chunk.get(offset, block, 0, length);
+        out.write(block, 0, length);
+      }
+    }
+  }
+
+  private static ByteBuffer allocateAligned(int length) {
+    int padded = (length + HUGE_PAGE_BYTES - 1) / HUGE_PAGE_BYTES * HUGE_PAGE_BYTES;
+    ByteBuffer buffer = ByteBuffer.allocateDirect(padded + HUGE_PAGE_BYTES).alignedSlice(HUGE_PAGE_BYTES);
+    return buffer.limit(length).slice();
+  }
+}
@@ -0,0 +1,58 @@
+package rubikscube.heuristic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+public class CornerEdgeOrientationDatabase {
+
+  private final int depth;
+  private final DistanceTable table = new DistanceTable();
+
+  public CornerEdgeOrientationDatabase(int depth) {
+    this.depth = depth;
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  public int size() {
+    return table.size();
+  }
+
+  public long getMemoryBytes() {
+    return table.getMemoryBytes();
+  }
+
+  public static long estimateMemoryBytes(long fileBytes) {
+    return DistanceTable.estimateMemoryBytes(DistanceTable.getEntries(fileBytes - 8));
+  }
+
+  public int get(long index) {
+    return table.get(index, 0);
+  }
+
+  public boolean put(long index, int distance) {
+    return table.put(index, 0, distance);
+  }
+
+  public void write(String file) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+      out.writeInt(depth);
+      table.write(out);
+    }
+  }
+
+  public static CornerEdgeOrientationDatabase read(String file) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      CornerEdgeOrientationDatabase database = new CornerEdgeOrientationDatabase(in.readInt());
+      database.table.read(in);
+      return database;
+    }
+  }
+}
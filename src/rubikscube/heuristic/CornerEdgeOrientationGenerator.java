@@ -0,0 +1,67 @@
+package rubikscube.heuristic;
+
+import java.io.IOException;
+import java.util.Arrays;
+import rubikscube.MoveTables;
+
+public class CornerEdgeOrientationGenerator extends HeuristicGenerator {
+
+  private static final int DEFAULT_DEPTH = 7;
+  private final CornerEdgeOrientationDatabase database;
+  private long[] frontier = new long[1];
+  private int frontierSize = 1;
+
+  public CornerEdgeOrientationGenerator(int depth) {
+    database = new CornerEdgeOrientationDatabase(depth);
+    frontier[0] = CornerEdgeOrientationPattern.getSolvedIndex();
+    database.put(frontier[0], 0);
+  }
+
+  public static void main(String[] args) {
+    int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+    CornerEdgeOrientationGenerator generator = new CornerEdgeOrientationGenerator(depth);
+    generator.generate(depth);
+    try {
+      generator.getDatabase().write("corneredges.bin");
+    } catch (IOException e) {
+      System.out.println("There is an error writing to the file.");
+    }
+  }
+
+  public CornerEdgeOrientationDatabase getDatabase() {
+    return database;
+  }
+
+  @Override
+  protected long expand(int depth) {
+    boolean last = depth + 1 >= database.getDepth();
+    long[] next = new long[last ? 0 : frontierSize * 16];
+    int nextSize = 0;
+    long added = 0;
+
+    for (int i = 0; i < frontierSize; i++) {
+      int corners = CornerEdgeOrientationPattern.getCorners(frontier[i]);
+      int orientation = CornerEdgeOrientationPattern.getOrientation(frontier[i]);
+      int permutation = MoveTables.getCornerPermutation(corners);
+      int twist = MoveTables.getCornerOrientation(corners);
+      for (int move = 0; move < MoveTables.MOVES; move++) {
+        int movedCorners = MoveTables.getCornerState(MoveTables.moveCornerPermutation(permutation, move),
+                MoveTables.moveCornerOrientation(permutation, twist, move));
+        long child = CornerEdgeOrientationPattern.getIndex(movedCorners, CornerEdgeOrientationPattern.moveOrientation(orientation, move));
+        if (database.put(child, depth + 1)) {
+          added++;
+          if (!last) {
+            if (nextSize == next.length) {
+              next = Arrays.copyOf(next, next.length * 2);
+            }
+            next[nextSize++] = child;
+          }
+        }
+      }
+    }
+
+    frontier = next;
+    frontierSize = nextSize;
+    return added;
+  }
+}
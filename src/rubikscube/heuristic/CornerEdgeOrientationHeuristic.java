@@ -0,0 +1,44 @@
+package rubikscube.heuristic;
+
+public class CornerEdgeOrientationHeuristic implements HeuristicProvider {
+
+  private final CornerEdgeOrientationDatabase database;
+
+  public CornerEdgeOrientationHeuristic(CornerEdgeOrientationDatabase database) {
+    this.database = database;
+  }
+
+  @Override
+  public int getHeuristic(int[] coordinates, byte[] cubies) {
+    int distance = database.get(CornerEdgeOrientationPattern.getIndex(coordinates, cubies));
+    return distance >= 0 ? distance : database.getDepth() + 1;
+  }
+
+  @Override
+  public void getHeuristics(int[][] coordinates, byte[][] cubies, int count, int[] result, int threshold) {
+    for (int n = 0; n < count; n++) {
+      if (result[n] > threshold) {
+        continue;
+      }
+      int h = getHeuristic(coordinates[n], cubies[n]);
+      if (h > result[n]) {
+        result[n] = h;
+      }
+    }
+  }
+
+  @Override
+  public boolean needsCubies() {
+    return true;
+  }
+
+  @Override
+  public long getMemoryBytes() {
+    return database.getMemoryBytes();
+  }
+
+  @Override
+  public String toString() {
+    return "corners and edge orientation";
+  }
+}
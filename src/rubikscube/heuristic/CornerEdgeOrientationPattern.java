@@ -0,0 +1,69 @@
+package rubikscube.heuristic;
+
+import rubikscube.MoveTables;
+
+public class CornerEdgeOrientationPattern {
+
+  public static final long SIZE = (long) MoveTables.CORNER_STATES * MoveTables.CUBE_EDGE_ORIENTATIONS;
+  private static final int num_corners = 8;
+  private static final int num_edges = 12;
+  private static final char[] orientationMoves = new char[MoveTables.CUBE_EDGE_ORIENTATIONS * MoveTables.MOVES];
+
+  static {
+    for (int orientation = 0; orientation < MoveTables.CUBE_EDGE_ORIENTATIONS; orientation++) {
+      int last = Integer.bitCount(orientation) & 1;
+      for (int move = 0; move < MoveTables.MOVES; move++) {
+        int moved = 0;
+        for (int slot = 0; slot < num_edges; slot++) {
+          int flip = slot < num_edges - 1 ? (orientation >> slot) & 1 : last;
+          int edge = MoveTables.moveEdge(slot * 2 + flip, move);
+          if (edge / 2 < num_edges - 1) {
+            moved |= (edge % 2) << (edge / 2);
+          }
+        }
+        orientationMoves[orientation * MoveTables.MOVES + move] = (char) moved;
+      }
+    }
+  }
+
+  private CornerEdgeOrientationPattern() {
+  }
+
+  public static long getIndex(int[] coordinates, byte[] cubies) {
+    int corners = MoveTables.getCornerState(coordinates[MoveTables.CORNER_PERMUTATION], coordinates[MoveTables.CORNER_ORIENTATION]);
+    return getIndex(corners, getOrientation(cubies));
+  }
+
+  public static long getIndex(int corners, int orientation) {
+    return (long) corners * MoveTables.CUBE_EDGE_ORIENTATIONS + orientation;
+  }
+
+  public static int getCorners(long index) {
+    return (int) (index / MoveTables.CUBE_EDGE_ORIENTATIONS);
+  }
+
+  public static int getOrientation(long index) {
+    return (int) (index % MoveTables.CUBE_EDGE_ORIENTATIONS);
+  }
+
+  public static int getOrientation(byte[] cubies) {
+    int orientation = 0;
+    for (int i = 0; i < num_edges; i++) {
+      int edge = cubies[num_corners + i];
+      if (edge / 2 < num_edges - 1) {
+        orientation |= (edge % 2) << (edge / 2);
+      }
+    }
+    return orientation;
+  }
+
+  public static int moveOrientation(int orientation, int move) {
+    return orientationMoves[orientation * MoveTables.MOVES + move];
+  }
+
+  public static long getSolvedIndex() {
+    int[] coordinates = new int[MoveTables.COORDINATES];
+    MoveTables.getSolvedCoordinates(coordinates);
+    return getIndex(MoveTables.getCornerState(coordinates[MoveTables.CORNER_PERMUTATION], coordinates[MoveTables.CORNER_ORIENTATION]), 0);
+  }
+}
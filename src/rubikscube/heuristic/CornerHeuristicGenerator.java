@@ -1,96 +1,88 @@
 package rubikscube.heuristic;
 
-import java.io.FileWriter;
+import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.LinkedList;
-import java.util.Queue;
-import rubikscube.RubiksCubeCorners;
+import rubikscube.MoveTables;
 
-public class CornerHeuristicGenerator {
+public class CornerHeuristicGenerator extends HeuristicGenerator {
 
   private static final int MAX_DEPTH = 1;
-  private static byte[] heuristic = new byte[88179840];
-  private static RubiksCubeCorners cube;
+  private final ByteTable heuristic = new ByteTable(MoveTables.CORNER_STATES);
+
+  public CornerHeuristicGenerator() {
+    heuristic.fill((byte) -1);
+    heuristic.set(MoveTables.getCornerState(0, 0), (byte) 0);
+  }
 
   public static void main(String[] args) {
-    for (int i = 0; i < heuristic.length; i++) {
-      heuristic[i] = -1;
+    String file = "heuristic1.bin";
+    CornerHeuristicGenerator generator = new CornerHeuristicGenerator();
+    if (hasFlag(args, "--resume")) {
+      generator.resume(readResumable(file));
     }
+    generator.setCheckpoint(file + ".checkpoint");
+    generator.generate(getDepthArgument(args, MAX_DEPTH));
 
-    byte[] actions = new byte[0];
-    expand(actions);
-    PrintWriter writer = null;
     try {
-      writer = new PrintWriter(new FileWriter("heuristic1.txt"));  
-      for (int i = 0; i < heuristic.length; i++) {
-        writer.println(heuristic[i]);
-      }
+      generator.getDatabase().compress(getIntArgument(args, "--compress", 1)).write(file);
+      new File(file + ".checkpoint").delete();
     } catch (IOException e) {
       System.out.println("There is an error writing to the file.");
-    } finally {
-        writer.close();
     }
   }
 
-  public static void expand(byte[] actions) {
-    addToTable(actions);
-    Queue<byte[]> frontier = new LinkedList<>();
-    frontier.add(actions);
-    expand(frontier, 0);
-  }
-
-  public static void expand(Queue<byte[]> actionset, int depth) {
-    if (depth < MAX_DEPTH) {
-      Queue<byte[]> frontier = new LinkedList<>();
-      for (byte[] actions : actionset) {
-        for (byte color : RubiksCubeCorners.getFaces()) {
-          for (int i = 0; i < 3; i++) {
-            byte[] action = new byte[depth + 1];
-            System.arraycopy(actions, 0, action, 0, actions.length);
-            action[depth] = encode(color, (byte) (i + 1));
-            if (addToTable(action)) {
-              frontier.offer(action);
-            }
-          }
-        }
-      }
-
-      expand(frontier, depth + 1);
+  public void resume(PatternDatabase database) {
+    if (database == null || database.getPattern() != PatternDatabase.CORNERS) {
+      return;
     }
-  }
-
-  private static boolean addToTable(byte[] actions) {
-    boolean added = false;
-
-    cube = new RubiksCubeCorners();
-    for (byte action : actions) {
-      for (byte face : decode(action)) {
-        cube.rotateFace(face);
+    long reached = 0;
+    ByteTable table = database.getTable();
+    heuristic.copyFrom(table);
+    for (long i = 0; i < table.size(); i++) {
+      if (table.get(i) != -1) {
+        reached++;
       }
     }
+    resume(database.getDepth(), reached);
+  }
 
-    int state = cube.getState();
-    if (heuristic[state] == -1) {
-      heuristic[state] = (byte) actions.length;
-      added = true;
-    }
-    return added;
+  public PatternDatabase getDatabase() {
+    return new PatternDatabase(PatternDatabase.CORNERS, PatternLayout.INTERLEAVED, heuristic, getDepth());
   }
 
-  private static byte[] decode(byte action) {
-    byte color = (byte) (action / 3);
-    int rotations = (action % 3) + 1;
+  public ByteTable getHeuristic() {
+    return heuristic;
+  }
 
-    byte[] actions = new byte[rotations];
-    for (int i = 0; i < actions.length; i++) {
-      actions[i] = (byte) color;
-    }
+  @Override
+  protected long getStateCount() {
+    return heuristic.size();
+  }
 
-    return actions;
+  @Override
+  protected void writeCheckpoint(String file, int depth) throws IOException {
+    new PatternDatabase(PatternDatabase.CORNERS, PatternLayout.INTERLEAVED, heuristic, depth).write(file);
   }
 
-  private static byte encode(byte color, byte rotations) {
-    return (byte) ((color * 3) + (rotations - 1));
+  @Override
+  protected long expand(int depth) {
+    long added = 0;
+    for (int permutation = 0; permutation < MoveTables.CORNER_PERMUTATIONS; permutation++) {
+      for (int orientation = 0; orientation < MoveTables.CORNER_ORIENTATIONS; orientation++) {
+        if (heuristic.get(MoveTables.getCornerState(permutation, orientation)) != depth) {
+          continue;
+        }
+
+        for (int move = 0; move < MoveTables.MOVES; move++) {
+          int state = MoveTables.getCornerState(MoveTables.moveCornerPermutation(permutation, move),
+                  MoveTables.moveCornerOrientation(permutation, orientation, move));
+          if (heuristic.get(state) == -1) {
+            heuristic.set(state, (byte) (depth + 1));
+            added++;
+          }
+        }
+      }
+    }
+    return added;
   }
 }
@@ -0,0 +1,112 @@
+package rubikscube.heuristic;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class DistanceTable {
+
+  public static final int MAX_DISTANCE = 14;
+  private static final int initial_capacity = 1 << 10;
+  private static final int entry_bytes = 9;
+  private long[] keys = new long[initial_capacity];
+  private byte[] values = new byte[initial_capacity];
+  private int size;
+
+  public int size() {
+    return size;
+  }
+
+  public long getMemoryBytes() {
+    return keys.length * (long) entry_bytes;
+  }
+
+  public static long estimateMemoryBytes(long entries) {
+    long capacity = initial_capacity;
+    while (capacity < (entries + 1) * 2) {
+      capacity *= 2;
+    }
+    return capacity * entry_bytes;
+  }
+
+  public static long getEntries(long bytes) {
+    return bytes / entry_bytes;
+  }
+
+  public int get(long key, int tag) {
+    int extra = tag << 4;
+    int mask = keys.length - 1;
+    for (int i = hash(key, extra) & mask; values[i] != 0; i = (i + 1) & mask) {
+      if (keys[i] == key && (values[i] & 0xF0) == extra) {
+        return (values[i] & 0x0F) - 1;
+      }
+    }
+    return -1;
+  }
+
+  public boolean put(long key, int tag, int distance) {
+    return put(key, (byte) ((tag << 4) | (distance + 1)));
+  }
+
+  private boolean put(long key, byte value) {
+    if ((size + 1) * 2 > keys.length) {
+      resize();
+    }
+
+    int extra = value & 0xF0;
+    int mask = keys.length - 1;
+    int i = hash(key, extra) & mask;
+    for (; values[i] != 0; i = (i + 1) & mask) {
+      if (keys[i] == key && (values[i] & 0xF0) == extra) {
+        return false;
+      }
+    }
+    keys[i] = key;
+    values[i] = value;
+    size++;
+    return true;
+  }
+
+  private void resize() {
+    long[] oldKeys = keys;
+    byte[] oldValues = values;
+    keys = new long[oldKeys.length * 2];
+    values = new byte[oldValues.length * 2];
+    size = 0;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldValues[i] != 0) {
+        put(oldKeys[i], oldValues[i]);
+      }
+    }
+  }
+
+  public void write(DataOutput out) throws IOException {
+    out.writeInt(size);
+    for (int i = 0; i < keys.length; i++) {
+      if (values[i] != 0) {
+        out.writeLong(keys[i]);
+        out.writeByte(values[i]);
+      }
+    }
+  }
+
+  public void read(DataInput in) throws IOException {
+    int entries = in.readInt();
+    for (int i = 0; i < entries; i++) {
+      put(in.readLong(), in.readByte());
+    }
+  }
+
+  private static int hash(long key, int extra) {
+    return hash(key ^ ((long) extra << 56));
+  }
+
+  public static int hash(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return (int) h;
+  }
+}
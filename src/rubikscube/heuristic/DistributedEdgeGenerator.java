@@ -0,0 +1,258 @@
+package rubikscube.heuristic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import rubikscube.MoveTables;
+
+public class DistributedEdgeGenerator extends HeuristicGenerator {
+
+  private static final int MAX_DEPTH = 11;
+  private static final int batch_size = 1 << 16;
+  private static final long poll_millis = 10;
+  private final File directory;
+  private final int group;
+  private final int worker;
+  private final int workers;
+  private final int start;
+  private final int end;
+  private final int range;
+  private final byte[] heuristic;
+  private final int[][] batches;
+  private final int[] counts;
+  private final DataOutputStream[] outputs;
+
+  public DistributedEdgeGenerator(File directory, int group, int worker, int workers) {
+    this.directory = directory;
+    this.group = group;
+    this.worker = worker;
+    this.workers = workers;
+    range = (MoveTables.EDGE_STATES + workers - 1) / workers;
+    start = worker * range;
+    end = Math.min(MoveTables.EDGE_STATES, start + range);
+    heuristic = new byte[end - start];
+    batches = new int[workers][batch_size];
+    counts = new int[workers];
+    outputs = new DataOutputStream[workers];
+
+    for (int i = 0; i < heuristic.length; i++) {
+      heuristic[i] = -1;
+    }
+    int solved = MoveTables.getEdgeState(group, MoveTables.getSolvedEdgePosition(group), 0);
+    if (solved >= start && solved < end) {
+      heuristic[solved - start] = 0;
+    }
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int depth = getIntArgument(args, "--depth", MAX_DEPTH);
+    String output = args.length > 4 && !args[4].startsWith("--") ? args[4] : null;
+    if (args.length >= 4 && args[0].equals("launch")) {
+      launch(new File(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]), output, depth);
+      return;
+    }
+    if (args.length < 4) {
+      System.out.println("Usage: DistributedEdgeGenerator <directory> <group> <worker> <workers> [output] [--depth n]");
+      System.out.println("       DistributedEdgeGenerator launch <directory> <group> <workers> [output] [--depth n]");
+      return;
+    }
+
+    File directory = new File(args[0]);
+    int group = Integer.parseInt(args[1]);
+    int worker = Integer.parseInt(args[2]);
+    if (new File(directory, "sent0-" + worker).exists()) {
+      System.out.println("There is an error: " + directory + " holds markers from an earlier run.");
+      return;
+    }
+    DistributedEdgeGenerator generator = new DistributedEdgeGenerator(directory, group, worker, Integer.parseInt(args[3]));
+    generator.generate(depth);
+    generator.finish();
+    generator.write(output != null ? output : "heuristic" + (group + 2) + ".bin");
+  }
+
+  private static void launch(File directory, int group, int workers, String output, int depth)
+          throws IOException, InterruptedException {
+    directory.mkdirs();
+    deleteExchangeFiles(directory);
+
+    List<Process> processes = new ArrayList<>();
+    for (int i = 0; i < workers; i++) {
+      List<String> command = new ArrayList<>();
+      command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+      command.add("-cp");
+      command.add(System.getProperty("java.class.path"));
+      command.add(DistributedEdgeGenerator.class.getName());
+      command.add(directory.getPath());
+      command.add(String.valueOf(group));
+      command.add(String.valueOf(i));
+      command.add(String.valueOf(workers));
+      if (output != null) {
+        command.add(output);
+      }
+      command.add("--depth");
+      command.add(String.valueOf(depth));
+      ProcessBuilder builder = new ProcessBuilder(command);
+      builder.redirectErrorStream(true);
+      builder.redirectOutput(i == 0 ? ProcessBuilder.Redirect.INHERIT : ProcessBuilder.Redirect.DISCARD);
+      processes.add(builder.start());
+    }
+    for (Process process : processes) {
+      process.waitFor();
+    }
+  }
+
+  public byte[] getHeuristic() {
+    return heuristic;
+  }
+
+  @Override
+  protected long expand(int depth) {
+    try {
+      long added = 0;
+      for (int position = 0; position < MoveTables.EDGE_POSITIONS; position++) {
+        for (int orientation = 0; orientation < MoveTables.EDGE_ORIENTATIONS; orientation++) {
+          int state = MoveTables.getEdgeState(group, position, orientation);
+          if (state < start || state >= end || heuristic[state - start] != depth) {
+            continue;
+          }
+
+          for (int move = 0; move < MoveTables.MOVES; move++) {
+            int child = MoveTables.getEdgeState(group, MoveTables.moveEdgePosition(position, move),
+                    MoveTables.moveEdgeOrientation(position, orientation, move));
+            if (child >= start && child < end) {
+              if (heuristic[child - start] == -1) {
+                heuristic[child - start] = (byte) (depth + 1);
+                added++;
+              }
+            } else {
+              send(child / range, child, depth);
+            }
+          }
+        }
+      }
+
+      for (int owner = 0; owner < workers; owner++) {
+        flush(owner, depth);
+        if (outputs[owner] != null) {
+          outputs[owner].close();
+          outputs[owner] = null;
+        }
+      }
+      mark("sent", depth, 0);
+      await("sent", depth);
+
+      for (int sender = 0; sender < workers; sender++) {
+        File file = getBatchFile(depth, sender, worker);
+        if (!file.exists()) {
+          continue;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+          while (true) {
+            int child = in.readInt() - start;
+            if (heuristic[child] == -1) {
+              heuristic[child] = (byte) (depth + 1);
+              added++;
+            }
+          }
+        } catch (EOFException e) {
+          file.delete();
+        }
+      }
+
+      mark("added", depth, added);
+      return await("added", depth);
+    } catch (IOException e) {
+      throw new IllegalStateException("There is an error exchanging layer " + depth, e);
+    }
+  }
+
+  public void finish() throws IOException {
+    mark("done", 0, 0);
+    if (worker != 0) {
+      return;
+    }
+    await("done", 0);
+    deleteExchangeFiles(directory);
+  }
+
+  private static void deleteExchangeFiles(File directory) {
+    for (File file : directory.listFiles()) {
+      String name = file.getName();
+      if (name.matches("(layer|sent|added|done)\\d+-\\d+(-\\d+\\.bin|\\.tmp)?")) {
+        file.delete();
+      }
+    }
+  }
+
+  public void write(String file) throws IOException {
+    try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+      if (worker == 0) {
+        PatternDatabase.writeHeader(out, PatternDatabase.EDGES_1 + group, PatternLayout.INTERLEAVED, MoveTables.EDGE_STATES,
+                getDepth());
+      }
+      out.seek(PatternDatabase.HEADER_BYTES + start);
+      out.write(heuristic);
+    }
+  }
+
+  private void send(int owner, int child, int depth) throws IOException {
+    batches[owner][counts[owner]++] = child;
+    if (counts[owner] == batch_size) {
+      flush(owner, depth);
+    }
+  }
+
+  private void flush(int owner, int depth) throws IOException {
+    if (counts[owner] == 0) {
+      return;
+    }
+    if (outputs[owner] == null) {
+      outputs[owner] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getBatchFile(depth, worker, owner))));
+    }
+    for (int i = 0; i < counts[owner]; i++) {
+      outputs[owner].writeInt(batches[owner][i]);
+    }
+    counts[owner] = 0;
+  }
+
+  private File getBatchFile(int depth, int sender, int owner) {
+    return new File(directory, "layer" + depth + "-" + sender + "-" + owner + ".bin");
+  }
+
+  private void mark(String phase, int depth, long value) throws IOException {
+    File temporary = new File(directory, phase + depth + "-" + worker + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temporary))) {
+      out.writeLong(value);
+    }
+    if (!temporary.renameTo(new File(directory, phase + depth + "-" + worker))) {
+      throw new IOException("Could not publish " + temporary);
+    }
+  }
+
+  private long await(String phase, int depth) throws IOException {
+    long total = 0;
+    for (int i = 0; i < workers; i++) {
+      File file = new File(directory, phase + depth + "-" + i);
+      while (!file.exists()) {
+        try {
+          Thread.sleep(poll_millis);
+        } catch (InterruptedException e) {
+          throw new IOException("Interrupted waiting for worker " + i, e);
+        }
+      }
+      try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+        total += in.readLong();
+      }
+    }
+    return total;
+  }
+}
@@ -0,0 +1,50 @@
+package rubikscube.heuristic;
+
+import java.util.List;
+import rubikscube.MoveTables;
+
+public class DualHeuristic implements HeuristicProvider {
+
+  private final HeuristicProvider[] providers;
+  private final byte[] inverse = new byte[MoveTables.CUBIES];
+  private final int[] inverseCoordinates = new int[MoveTables.COORDINATES];
+  private final byte[] slots = new byte[MoveTables.CUBIES];
+
+  public DualHeuristic(List<HeuristicProvider> providers) {
+    this.providers = providers.toArray(new HeuristicProvider[0]);
+  }
+
+  @Override
+  public int getHeuristic(int[] coordinates, byte[] cubies) {
+    MoveTables.invertCubies(cubies, inverse);
+    MoveTables.getCoordinates(inverse, inverseCoordinates, slots);
+    int heuristic = 0;
+    for (HeuristicProvider provider : providers) {
+      heuristic = Math.max(heuristic, provider.getHeuristic(inverseCoordinates, inverse));
+    }
+    return heuristic;
+  }
+
+  @Override
+  public void getHeuristics(int[][] coordinates, byte[][] cubies, int count, int[] result, int threshold) {
+    for (int n = 0; n < count; n++) {
+      if (result[n] > threshold) {
+        continue;
+      }
+      int h = getHeuristic(coordinates[n], cubies[n]);
+      if (h > result[n]) {
+        result[n] = h;
+      }
+    }
+  }
+
+  @Override
+  public boolean needsCubies() {
+    return true;
+  }
+
+  @Override
+  public long getMemoryBytes() {
+    return 0;
+  }
+}
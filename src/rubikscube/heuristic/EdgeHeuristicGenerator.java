@@ -1,103 +1,94 @@
 package rubikscube.heuristic;
 
-import java.io.FileWriter;
+import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.LinkedList;
-import java.util.Queue;
-import rubikscube.RubiksCubeEdges;
+import rubikscube.MoveTables;
 
-public class EdgeHeuristicGenerator {
+public class EdgeHeuristicGenerator extends HeuristicGenerator {
 
-  private static RubiksCubeEdges cube;
   private static final int MAX_DEPTH = 11;
-  private static byte[][] heuristics = {
-    new byte[42577920],
-    new byte[42577920]
-  };
+  private final int group;
+  private final ByteTable heuristic = new ByteTable(MoveTables.EDGE_STATES);
+
+  public EdgeHeuristicGenerator(int group) {
+    this.group = group;
+    heuristic.fill((byte) -1);
+    heuristic.set(MoveTables.getEdgeState(group, MoveTables.getSolvedEdgePosition(group), 0), (byte) 0);
+  }
 
   public static void main(String[] args) {
-    for (int i = 0; i < heuristics.length; i++) {
-      for (int j = 0; j < heuristics[i].length; j++) {
-        heuristics[i][j] = -1;
+    System.out.println("Starting to generate file...");
+    int depth = getDepthArgument(args, MAX_DEPTH);
+    for (int i = 0; i < 2; i++) {
+      String file = "heuristic" + (i + 2) + ".bin";
+      EdgeHeuristicGenerator generator = new EdgeHeuristicGenerator(i);
+      if (hasFlag(args, "--resume")) {
+        generator.resume(readResumable(file));
       }
+      generator.setCheckpoint(file + ".checkpoint");
+      generator.generate(depth);
 
-    }
-    System.out.println("Starting to generate file...");
-    expand(new byte[0]);
-    for (int i = 0; i < heuristics.length; i++) {
-      try (PrintWriter writer = new PrintWriter(new FileWriter("heuristic" + (i + 2) + ".txt"))) {
-        for (int j = 0; j < heuristics[i].length; j++) {
-          writer.println(heuristics[i][j]);
-        }
+      try {
+        generator.getDatabase().compress(getIntArgument(args, "--compress", 1)).write(file);
+        new File(file + ".checkpoint").delete();
       } catch (IOException e) {
         System.out.println("There is an error writing to the file.");
       }
     }
   }
 
-  public static void expand(byte[] actions) {
-    addToTable(actions);
-    Queue<byte[]> frontier = new LinkedList<>();
-    frontier.add(actions);
-    expand(frontier, 0);
-  }
-
-  public static void expand(Queue<byte[]> actionset, int depth) {
-    if (depth < MAX_DEPTH) {
-      Queue<byte[]> frontier = new LinkedList<>();
-      for (byte[] actions : actionset) {
-        for (byte color : RubiksCubeEdges.getFaces()) {
-          for (int i = 0; i < 3; i++) {
-            byte[] action = new byte[depth + 1];
-            System.arraycopy(actions, 0, action, 0, actions.length);
-            action[depth] = encode(color, (byte) (i + 1));
-            if (addToTable(action)) {
-              frontier.offer(action);
-            }
-          }
-        }
+  public void resume(PatternDatabase database) {
+    if (database == null || database.getPattern() != PatternDatabase.EDGES_1 + group) {
+      return;
+    }
+    long reached = 0;
+    ByteTable table = database.getTable();
+    heuristic.copyFrom(table);
+    for (long i = 0; i < table.size(); i++) {
+      if (table.get(i) != -1) {
+        reached++;
       }
-      System.out.println(frontier.size());
-      expand(frontier, depth + 1);
     }
+    resume(database.getDepth(), reached);
   }
 
-  private static boolean addToTable(byte[] actions) {
-    boolean added = false;
-
-    cube = new RubiksCubeEdges();
+  public PatternDatabase getDatabase() {
+    return new PatternDatabase(PatternDatabase.EDGES_1 + group, PatternLayout.INTERLEAVED, heuristic, getDepth());
+  }
 
-    for (byte action : actions) {
-      for (byte face : decode(action)) {
-        cube.rotateFace(face);
-      }
-    }
+  public ByteTable getHeuristic() {
+    return heuristic;
+  }
 
-    int[] states = cube.getStates();
-    for (int i = 0; i < states.length; i++) {
-      if (heuristics[i][states[i]] == -1) {
-        heuristics[i][states[i]] = (byte) actions.length;
-        added = true;
-      }
-    }
+  @Override
+  protected long getStateCount() {
+    return heuristic.size();
+  }
 
-    return added;
+  @Override
+  protected void writeCheckpoint(String file, int depth) throws IOException {
+    new PatternDatabase(PatternDatabase.EDGES_1 + group, PatternLayout.INTERLEAVED, heuristic, depth).write(file);
   }
 
-  private static byte[] decode(byte action) {
-    byte color = (byte) (action / 3);
-    int rotations = (action % 3) + 1;
+  @Override
+  protected long expand(int depth) {
+    long added = 0;
+    for (int position = 0; position < MoveTables.EDGE_POSITIONS; position++) {
+      for (int orientation = 0; orientation < MoveTables.EDGE_ORIENTATIONS; orientation++) {
+        if (heuristic.get(MoveTables.getEdgeState(group, position, orientation)) != depth) {
+          continue;
+        }
 
-    byte[] actions = new byte[rotations];
-    for (int i = 0; i < actions.length; i++) {
-      actions[i] = (byte) color;
+        for (int move = 0; move < MoveTables.MOVES; move++) {
+          int state = MoveTables.getEdgeState(group, MoveTables.moveEdgePosition(position, move),
+                  MoveTables.moveEdgeOrientation(position, orientation, move));
+          if (heuristic.get(state) == -1) {
+            heuristic.set(state, (byte) (depth + 1));
+            added++;
+          }
+        }
+      }
     }
-
-    return actions;
-  }
-
-  private static byte encode(byte color, byte rotations) {
-    return (byte) ((color * 3) + (rotations - 1));
+    return added;
   }
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package rubikscube.heuristic;
+
+import rubikscube.MoveTables;
+
+public class EdgePattern {
+
+  private static final int num_corners = 8;
+  private static final int num_edges = 12;
+  private final byte[] edges;
+  private final int positions;
+
+  public EdgePattern(byte[] edges) {
+    this.edges = edges.clone();
+    int p = 1;
+    for (int i = 0; i < edges.length; i++) {
+      p *= num_edges - i;
+    }
+    positions = p;
+  }
+
+  public static EdgePattern parse(String representation) {
+    String[] tokens = representation.split(",");
+    byte[] edges = new byte[tokens.length];
+    for (int i = 0; i < tokens.length; i++) {
+      edges[i] = Byte.parseByte(tokens[i].trim());
+    }
+    return new EdgePattern(edges);
+  }
+
+  public int getEdgeCount() {
+    return edges.length;
+  }
+
+  public long size() {
+    return (long) positions << edges.length;
+  }
+
+  public long getState(byte[] cubies) {
+    int rank = 0;
+    int base = 1;
+    int used = 0;
+    int orientation = 0;
+    for (int j = 0; j < edges.length; j++) {
+      int edge = cubies[num_corners + edges[j]];
+      int slot = edge / 2;
+      rank += (slot - Integer.bitCount(used & ((1 << slot) - 1))) * base;
+      used |= 1 << slot;
+      base *= num_edges - j;
+      orientation |= (edge % 2) << j;
+    }
+    return ((long) rank << edges.length) | orientation;
+  }
+
+  long getState(byte[] slots, int orientation) {
+    return ((long) MoveTables.rank(slots, edges.length, num_edges) << edges.length) | orientation;
+  }
+
+  int getOrientation(long state) {
+    return (int) state & ((1 << edges.length) - 1);
+  }
+
+  void getSlots(long state, byte[] slots) {
+    MoveTables.unrank((int) (state >>> edges.length), slots, edges.length, num_edges);
+  }
+
+  public long getSolvedState() {
+    byte[] slots = new byte[edges.length];
+    for (int j = 0; j < edges.length; j++) {
+      slots[j] = edges[j];
+    }
+    return getState(slots, 0);
+  }
+
+  @Override
+  public String toString() {
+    String s = "";
+    for (byte edge : edges) {
+      s += edge + ",";
+    }
+    return s.substring(0, s.length() - 1);
+  }
+}
@@ -0,0 +1,71 @@
+package rubikscube.heuristic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+public class EdgePatternDatabase {
+
+  private final EdgePattern pattern;
+  private final ByteTable table;
+  private final int depth;
+  private final int compression;
+  private final int shift;
+
+  public EdgePatternDatabase(EdgePattern pattern, ByteTable table, int depth, int compression) {
+    this.pattern = pattern;
+    this.table = table;
+    this.depth = depth;
+    this.compression = compression;
+    shift = Integer.numberOfTrailingZeros(compression);
+  }
+
+  public EdgePattern getPattern() {
+    return pattern;
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  public int getCompression() {
+    return compression;
+  }
+
+  public long getMemoryBytes() {
+    return table.size();
+  }
+
+  public int get(byte[] cubies) {
+    return table.get(pattern.getState(cubies) >>> shift);
+  }
+
+  public void write(String file) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+      out.writeUTF(pattern.toString());
+      out.writeInt(compression);
+      out.writeInt(depth);
+      out.writeLong(table.size());
+      table.write(out);
+    }
+  }
+
+  public static EdgePatternDatabase read(String file) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      EdgePattern pattern = EdgePattern.parse(in.readUTF());
+      int compression = in.readInt();
+      int depth = in.readInt();
+      long entries = in.readLong();
+      if (Integer.bitCount(compression) != 1 || entries != pattern.size() / compression) {
+        throw new IOException("Not an edge pattern database: " + file);
+      }
+      ByteTable table = new ByteTable(entries);
+      table.read(in);
+      return new EdgePatternDatabase(pattern, table, depth, compression);
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package rubikscube.heuristic;
+
+import java.io.IOException;
+import rubikscube.MoveTables;
+
+public class EdgePatternGenerator extends HeuristicGenerator {
+
+  private static final int MAX_DEPTH = 20;
+  private static final String default_pattern = "0,1,2,3,4,5,6";
+  private static final int closed = 1;
+  private static final int open = 2;
+  private final EdgePattern pattern;
+  private final int compression;
+  private final int shift;
+  private final ByteTable heuristic;
+  private final ByteTable layers;
+
+  public EdgePatternGenerator(EdgePattern pattern) {
+    this(pattern, 1);
+  }
+
+  public EdgePatternGenerator(EdgePattern pattern, int compression) {
+    this.pattern = pattern;
+    this.compression = compression;
+    shift = Integer.numberOfTrailingZeros(compression);
+    heuristic = new ByteTable(pattern.size() >>> shift);
+    heuristic.fill((byte) -1);
+    long solved = pattern.getSolvedState();
+    heuristic.set(solved >>> shift, (byte) 0);
+    layers = compression > 1 ? new ByteTable((pattern.size() + 3) >>> 2) : null;
+    if (layers != null) {
+      layers.fill((byte) 0);
+      setLayer(solved, open);
+    }
+  }
+
+  public static void main(String[] args) {
+    EdgePattern pattern = EdgePattern.parse(getArgument(args, "--pattern", default_pattern));
+    int ratio = getIntArgument(args, "--compress", 1);
+    if (ratio < 1 || Integer.bitCount(ratio) != 1 || Integer.numberOfTrailingZeros(ratio) > pattern.getEdgeCount()) {
+      System.out.println("There is an error in the compression ratio: it must be a power of two up to 2^edges.");
+      return;
+    }
+
+    EdgePatternGenerator generator = new EdgePatternGenerator(pattern, ratio);
+    generator.generate(getDepthArgument(args, MAX_DEPTH));
+    try {
+      generator.getDatabase().write(getFileName(pattern));
+    } catch (IOException e) {
+      System.out.println("There is an error writing to the file.");
+    }
+  }
+
+  public static String getFileName(EdgePattern pattern) {
+    return "edgepattern-" + pattern.toString().replace(',', '-') + ".bin";
+  }
+
+  public EdgePatternDatabase getDatabase() {
+    return new EdgePatternDatabase(pattern, heuristic, getDepth(), compression);
+  }
+
+  public ByteTable getHeuristic() {
+    return heuristic;
+  }
+
+  public int getCompression() {
+    return compression;
+  }
+
+  @Override
+  protected long getStateCount() {
+    return pattern.size();
+  }
+
+  @Override
+  protected long expand(int depth) {
+    int count = pattern.getEdgeCount();
+    byte[] slots = new byte[count];
+    byte[] moved = new byte[count];
+    long states = pattern.size();
+    int frontier = open + (depth & 1);
+    int next = open + 1 - (depth & 1);
+    long added = 0;
+
+    for (long state = 0; state < states; state++) {
+      if (layers != null ? getLayer(state) != frontier : heuristic.get(state) != depth) {
+        continue;
+      }
+      if (layers != null) {
+        setLayer(state, closed);
+      }
+
+      pattern.getSlots(state, slots);
+      int orientation = pattern.getOrientation(state);
+      for (int move = 0; move < MoveTables.MOVES; move++) {
+        int flips = 0;
+        for (int j = 0; j < count; j++) {
+          int edge = MoveTables.moveEdge(slots[j] * 2 + ((orientation >> j) & 1), move);
+          moved[j] = (byte) (edge / 2);
+          flips |= (edge % 2) << j;
+        }
+
+        long child = pattern.getState(moved, flips);
+        if (layers == null) {
+          if (heuristic.get(child) == -1) {
+            heuristic.set(child, (byte) (depth + 1));
+            added++;
+          }
+        } else if (getLayer(child) == 0) {
+          setLayer(child, next);
+          if (heuristic.get(child >>> shift) == -1) {
+            heuristic.set(child >>> shift, (byte) (depth + 1));
+          }
+          added++;
+        }
+      }
+    }
+    return added;
+  }
+
+  private int getLayer(long state) {
+    return (layers.get(state >>> 2) >>> (((int) state & 3) << 1)) & 3;
+  }
+
+  private void setLayer(long state, int value) {
+    int bit = ((int) state & 3) << 1;
+    layers.set(state >>> 2, (byte) (layers.get(state >>> 2) & ~(3 << bit) | value << bit));
+  }
+}
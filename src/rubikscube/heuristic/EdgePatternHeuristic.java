@@ -0,0 +1,45 @@
+package rubikscube.heuristic;
+
+public class EdgePatternHeuristic implements HeuristicProvider {
+
+  private final EdgePatternDatabase database;
+
+  public EdgePatternHeuristic(EdgePatternDatabase database) {
+    this.database = database;
+  }
+
+  @Override
+  public int getHeuristic(int[] coordinates, byte[] cubies) {
+    int distance = database.get(cubies);
+    return distance >= 0 ? distance : database.getDepth() + 1;
+  }
+
+  @Override
+  public void getHeuristics(int[][] coordinates, byte[][] cubies, int count, int[] result, int threshold) {
+    for (int n = 0; n < count; n++) {
+      if (result[n] > threshold) {
+        continue;
+      }
+      int h = getHeuristic(coordinates[n], cubies[n]);
+      if (h > result[n]) {
+        result[n] = h;
+      }
+    }
+  }
+
+  @Override
+  public boolean needsCubies() {
+    return true;
+  }
+
+  @Override
+  public long getMemoryBytes() {
+    return database.getMemoryBytes();
+  }
+
+  @Override
+  public String toString() {
+    String name = "edges " + database.getPattern();
+    return database.getCompression() > 1 ? name + " /" + database.getCompression() : name;
+  }
+}
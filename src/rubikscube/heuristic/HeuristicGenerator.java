@@ -0,0 +1,146 @@
+package rubikscube.heuristic;
+
+import java.io.File;
+import java.io.IOException;
+
+public abstract class HeuristicGenerator {
+
+  private int depth;
+  private long reached = 1;
+  private String checkpoint;
+
+  public void generate(int maxDepth) {
+    long previous = 0;
+    for (; depth < maxDepth; depth++) {
+      long start = System.nanoTime();
+      long added = expand(depth);
+      long elapsed = System.nanoTime() - start;
+      reached += added;
+      report(depth + 1, added, previous, elapsed, maxDepth);
+      previous = added;
+      if (added == 0) {
+        break;
+      }
+      if (checkpoint != null) {
+        saveCheckpoint(depth + 1);
+      }
+    }
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  public long getReached() {
+    return reached;
+  }
+
+  public void setCheckpoint(String checkpoint) {
+    this.checkpoint = checkpoint;
+  }
+
+  protected void resume(int depth, long reached) {
+    this.depth = depth;
+    this.reached = reached;
+  }
+
+  protected long getStateCount() {
+    return -1;
+  }
+
+  protected void writeCheckpoint(String file, int depth) throws IOException {
+  }
+
+  protected abstract long expand(int depth);
+
+  static PatternDatabase readResumable(String file) {
+    for (String name : new String[] {file + ".checkpoint", file}) {
+      if (!new File(name).exists()) {
+        continue;
+      }
+      try {
+        PatternDatabase database = PatternDatabase.read(name);
+        if (database.getCompression() > 1) {
+          System.out.println("Cannot resume from the compressed " + name);
+          continue;
+        }
+        System.out.println("Resuming from " + name + " at depth " + database.getDepth());
+        return database.convert(PatternLayout.INTERLEAVED);
+      } catch (IOException e) {
+        System.out.println("There is an error reading from the file.");
+      }
+    }
+    return null;
+  }
+
+  public static boolean hasFlag(String[] args, String flag) {
+    for (String arg : args) {
+      if (arg.equals(flag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public static int getIntArgument(String[] args, String flag, int defaultValue) {
+    for (int i = 0; i + 1 < args.length; i++) {
+      if (args[i].equals(flag)) {
+        return Integer.parseInt(args[i + 1]);
+      }
+    }
+    return defaultValue;
+  }
+
+  public static String getArgument(String[] args, String flag, String defaultValue) {
+    for (int i = 0; i + 1 < args.length; i++) {
+      if (args[i].equals(flag)) {
+        return args[i + 1];
+      }
+    }
+    return defaultValue;
+  }
+
+  public static int getDepthArgument(String[] args, int defaultDepth) {
+    return args.length > 0 && !args[0].startsWith("--") ? Integer.parseInt(args[0]) : defaultDepth;
+  }
+
+  private void saveCheckpoint(int depth) {
+    File temporary = new File(checkpoint + ".tmp");
+    try {
+      writeCheckpoint(temporary.getPath(), depth);
+      File target = new File(checkpoint);
+      if (target.exists() && !target.delete() || !temporary.renameTo(target)) {
+        System.out.println("There is an error writing to the file.");
+      }
+    } catch (IOException e) {
+      System.out.println("There is an error writing to the file.");
+    }
+  }
+
+  private void report(int layer, long added, long previous, long elapsed, int maxDepth) {
+    double seconds = Math.max(elapsed / 1e9, 1e-9);
+    long rate = (long) (added / seconds);
+    StringBuilder line = new StringBuilder();
+    line.append("Depth ").append(layer).append(": ").append(added).append(" states (").append(reached).append(" total), ")
+            .append(rate).append(" states/s");
+
+    long remaining = 0;
+    if (added > 0 && previous > 0 && layer < maxDepth) {
+      double growth = (double) added / previous;
+      double projected = added;
+      for (int d = layer; d < maxDepth; d++) {
+        projected *= growth;
+        remaining += (long) projected;
+      }
+      long states = getStateCount();
+      if (states >= 0) {
+        remaining = Math.min(remaining, states - reached);
+      }
+    }
+    if (rate > 0 && remaining > 0) {
+      long eta = remaining / rate;
+      line.append(String.format(", ETA %d:%02d:%02d", eta / 3600, eta / 60 % 60, eta % 60));
+    }
+    System.out.println(line);
+  }
+}
@@ -0,0 +1,12 @@
+package rubikscube.heuristic;
+
+public interface HeuristicProvider {
+
+  int getHeuristic(int[] coordinates, byte[] cubies);
+
+  void getHeuristics(int[][] coordinates, byte[][] cubies, int count, int[] result, int threshold);
+
+  boolean needsCubies();
+
+  long getMemoryBytes();
+}
@@ -0,0 +1,93 @@
+package rubikscube.heuristic;
+
+import rubikscube.MoveTables;
+
+public class OrientationHeuristic implements HeuristicProvider {
+
+  private final boolean corners;
+  private final byte[] table;
+
+  private OrientationHeuristic(boolean corners, byte[] table) {
+    this.corners = corners;
+    this.table = table;
+  }
+
+  public static OrientationHeuristic corners(PatternDatabase database) {
+    PatternLayout layout = database.getLayout();
+    byte[] table = new byte[MoveTables.CORNER_ORIENTATIONS];
+    for (int orientation = 0; orientation < MoveTables.CORNER_ORIENTATIONS; orientation++) {
+      int min = Byte.MAX_VALUE;
+      for (int permutation = 0; permutation < MoveTables.CORNER_PERMUTATIONS; permutation++) {
+        min = Math.min(min, database.get(layout.getCornerIndex(permutation, orientation)));
+      }
+      table[orientation] = (byte) min;
+    }
+    return new OrientationHeuristic(true, table);
+  }
+
+  public static OrientationHeuristic edges(PatternDatabase first, PatternDatabase second) {
+    byte[] lower = project(first);
+    byte[] upper = project(second);
+    byte[] table = new byte[MoveTables.CUBE_EDGE_ORIENTATIONS];
+    for (int orientation = 0; orientation < MoveTables.CUBE_EDGE_ORIENTATIONS; orientation++) {
+      int high = (orientation >>> 6) | (Integer.bitCount(orientation) & 1) << 5;
+      table[orientation] = (byte) Math.max(lower[orientation & 63], upper[high]);
+    }
+    return new OrientationHeuristic(false, table);
+  }
+
+  private static byte[] project(PatternDatabase database) {
+    PatternLayout layout = database.getLayout();
+    int group = database.getPattern() - PatternDatabase.EDGES_1;
+    byte[] projected = new byte[MoveTables.EDGE_ORIENTATIONS];
+    for (int orientation = 0; orientation < MoveTables.EDGE_ORIENTATIONS; orientation++) {
+      int min = Byte.MAX_VALUE;
+      for (int position = 0; position < MoveTables.EDGE_POSITIONS; position++) {
+        min = Math.min(min, database.get(layout.getEdgeIndex(group, position, orientation)));
+      }
+      projected[orientation] = (byte) min;
+    }
+    return projected;
+  }
+
+  @Override
+  public int getHeuristic(int[] coordinates, byte[] cubies) {
+    return table[getIndex(coordinates)];
+  }
+
+  @Override
+  public void getHeuristics(int[][] coordinates, byte[][] cubies, int count, int[] result, int threshold) {
+    for (int n = 0; n < count; n++) {
+      if (result[n] > threshold) {
+        continue;
+      }
+      int h = table[getIndex(coordinates[n])];
+      if (h > result[n]) {
+        result[n] = h;
+      }
+    }
+  }
+
+  @Override
+  public boolean needsCubies() {
+    return false;
+  }
+
+  @Override
+  public long getMemoryBytes() {
+    return table.length;
+  }
+
+  @Override
+  public String toString() {
+    return corners ? "corner orientation" : "edge orientation";
+  }
+
+  private int getIndex(int[] coordinates) {
+    if (corners) {
+      return coordinates[MoveTables.CORNER_ORIENTATION];
+    }
+    int orientation = coordinates[MoveTables.EDGE_ORIENTATION_1] | coordinates[MoveTables.EDGE_ORIENTATION_2] << 6;
+    return orientation & (MoveTables.CUBE_EDGE_ORIENTATIONS - 1);
+  }
+}
@@ -0,0 +1,210 @@
+package rubikscube.heuristic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import rubikscube.MoveTables;
+
+public class PatternDatabase {
+
+  public static final int CORNERS = 0;
+  public static final int EDGES_1 = 1;
+  public static final int EDGES_2 = 2;
+  static final int HEADER_BYTES = 24;
+  private static final int magic = 0x50444232;
+  private static final int legacy_magic = 0x50444231;
+  private static final int compressed_magic = 0x50444233;
+  private final int pattern;
+  private final PatternLayout layout;
+  private final ByteTable table;
+  private final int depth;
+  private final int compression;
+
+  public PatternDatabase(int pattern, PatternLayout layout, ByteTable table, int depth, int compression) {
+    this.pattern = pattern;
+    this.layout = layout;
+    this.table = table;
+    this.depth = depth;
+    this.compression = compression;
+  }
+
+  public PatternDatabase(int pattern, PatternLayout layout, ByteTable table, int depth) {
+    this(pattern, layout, table, depth, 1);
+  }
+
+  public PatternDatabase(int pattern, PatternLayout layout, ByteTable table) {
+    this(pattern, layout, table, getMaxDepth(table));
+  }
+
+  public static void main(String[] args) {
+    PatternLayout layout = args.length > 0 ? PatternLayout.valueOf(args[0]) : PatternLayout.INTERLEAVED;
+    for (int i = 0; i < 3; i++) {
+      try {
+        readText("heuristic" + (i + 1) + ".txt", i).convert(layout).write("heuristic" + (i + 1) + ".bin");
+      } catch (IOException e) {
+        System.out.println("There is an error converting the file.");
+      }
+    }
+  }
+
+  public int getPattern() {
+    return pattern;
+  }
+
+  public PatternLayout getLayout() {
+    return layout;
+  }
+
+  public ByteTable getTable() {
+    return table;
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  public int getCompression() {
+    return compression;
+  }
+
+  public int get(long index) {
+    return table.get(index / compression);
+  }
+
+  public boolean isComplete() {
+    for (long i = 0; i < table.size(); i++) {
+      if (table.get(i) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public PatternDatabase fillUnreached() {
+    for (long i = 0; i < table.size(); i++) {
+      if (table.get(i) < 0) {
+        table.set(i, (byte) (depth + 1));
+      }
+    }
+    return this;
+  }
+
+  public PatternDatabase convert(PatternLayout target) {
+    if (target == layout || compression > 1) {
+      return this;
+    }
+
+    ByteTable converted = new ByteTable(table.size());
+    if (pattern == CORNERS) {
+      for (int permutation = 0; permutation < MoveTables.CORNER_PERMUTATIONS; permutation++) {
+        for (int orientation = 0; orientation < MoveTables.CORNER_ORIENTATIONS; orientation++) {
+          converted.set(target.getCornerIndex(permutation, orientation), table.get(layout.getCornerIndex(permutation, orientation)));
+        }
+      }
+    } else {
+      int group = pattern - EDGES_1;
+      for (int position = 0; position < MoveTables.EDGE_POSITIONS; position++) {
+        for (int orientation = 0; orientation < MoveTables.EDGE_ORIENTATIONS; orientation++) {
+          converted.set(target.getEdgeIndex(group, position, orientation), table.get(layout.getEdgeIndex(group, position, orientation)));
+        }
+      }
+    }
+    return new PatternDatabase(pattern, target, converted, depth);
+  }
+
+  public PatternDatabase compress(int ratio) {
+    if (ratio <= 1 || compression > 1) {
+      return this;
+    }
+
+    ByteTable source = convert(PatternLayout.POSITION_MAJOR).getTable();
+    ByteTable compressed = new ByteTable((source.size() + ratio - 1) / ratio);
+    for (long block = 0; block < compressed.size(); block++) {
+      int min = Byte.MAX_VALUE;
+      for (long i = block * ratio; i < Math.min(source.size(), (block + 1) * ratio); i++) {
+        byte value = source.get(i);
+        min = Math.min(min, value < 0 ? depth + 1 : value);
+      }
+      compressed.set(block, (byte) min);
+    }
+    return new PatternDatabase(pattern, PatternLayout.POSITION_MAJOR, compressed, depth, ratio);
+  }
+
+  public void write(String file) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+      if (compression > 1) {
+        writeHeader(out, pattern, layout, table.size(), depth, compression);
+      } else {
+        writeHeader(out, pattern, layout, table.size(), depth);
+      }
+      table.write(out);
+    }
+  }
+
+  static void writeHeader(DataOutput out, int pattern, PatternLayout layout, long entries, int depth) throws IOException {
+    out.writeInt(magic);
+    out.writeInt(pattern);
+    out.writeInt(layout.ordinal());
+    out.writeLong(entries);
+    out.writeInt(depth);
+  }
+
+  static void writeHeader(DataOutput out, int pattern, PatternLayout layout, long entries, int depth, int compression)
+          throws IOException {
+    out.writeInt(compressed_magic);
+    out.writeInt(pattern);
+    out.writeInt(layout.ordinal());
+    out.writeLong(entries);
+    out.writeInt(depth);
+    out.writeInt(compression);
+  }
+
+  public static PatternDatabase read(String file) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      int magic = readMagic(in, file);
+      boolean legacy = magic == legacy_magic;
+      int pattern = in.readInt();
+      PatternLayout layout = PatternLayout.values()[in.readInt()];
+      long entries = in.readLong();
+      int depth = legacy ? -1 : in.readInt();
+      int compression = magic == compressed_magic ? in.readInt() : 1;
+      ByteTable table = new ByteTable(entries);
+      table.read(in);
+      return legacy ? new PatternDatabase(pattern, layout, table) : new PatternDatabase(pattern, layout, table, depth, compression);
+    }
+  }
+
+  static int readMagic(DataInput in, String file) throws IOException {
+    int value = in.readInt();
+    if (value != magic && value != legacy_magic && value != compressed_magic) {
+      throw new IOException("Not a pattern database: " + file);
+    }
+    return value;
+  }
+
+  public static PatternDatabase readText(String file, int pattern) throws IOException {
+    ByteTable table = new ByteTable(pattern == CORNERS ? MoveTables.CORNER_STATES : MoveTables.EDGE_STATES);
+    try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+      for (long i = 0; i < table.size(); i++) {
+        table.set(i, Byte.parseByte(in.readLine()));
+      }
+    }
+    return new PatternDatabase(pattern, PatternLayout.INTERLEAVED, table);
+  }
+
+  private static int getMaxDepth(ByteTable table) {
+    int depth = 0;
+    for (long i = 0; i < table.size(); i++) {
+      depth = Math.max(depth, table.get(i));
+    }
+    return depth;
+  }
+}
@@ -0,0 +1,74 @@
+package rubikscube.heuristic;
+
+import rubikscube.MoveTables;
+
+public class PatternHeuristic implements HeuristicProvider {
+
+  private final PatternDatabase database;
+  private final PatternLayout layout;
+  private final int pattern;
+  private final int compression;
+  private final ByteTable table;
+
+  public PatternHeuristic(PatternDatabase database) {
+    this.database = database;
+    this.layout = database.getLayout();
+    this.pattern = database.getPattern();
+    this.compression = database.getCompression();
+    this.table = database.getTable();
+  }
+
+  public PatternDatabase getDatabase() {
+    return database;
+  }
+
+  public PatternHeuristic convert(PatternLayout target) {
+    return target == layout ? this : new PatternHeuristic(database.convert(target));
+  }
+
+  @Override
+  public int getHeuristic(int[] coordinates, byte[] cubies) {
+    return table.get(getIndex(coordinates));
+  }
+
+  @Override
+  public void getHeuristics(int[][] coordinates, byte[][] cubies, int count, int[] result, int threshold) {
+    for (int n = 0; n < count; n++) {
+      if (result[n] > threshold) {
+        continue;
+      }
+      int h = table.get(getIndex(coordinates[n]));
+      if (h > result[n]) {
+        result[n] = h;
+      }
+    }
+  }
+
+  @Override
+  public boolean needsCubies() {
+    return false;
+  }
+
+  @Override
+  public long getMemoryBytes() {
+    return table.size();
+  }
+
+  private int getIndex(int[] coordinates) {
+    int index;
+    if (pattern == PatternDatabase.CORNERS) {
+      index = layout.getCornerIndex(coordinates[MoveTables.CORNER_PERMUTATION], coordinates[MoveTables.CORNER_ORIENTATION]);
+    } else if (pattern == PatternDatabase.EDGES_1) {
+      index = layout.getEdgeIndex(0, coordinates[MoveTables.EDGE_POSITION_1], coordinates[MoveTables.EDGE_ORIENTATION_1]);
+    } else {
+      index = layout.getEdgeIndex(1, coordinates[MoveTables.EDGE_POSITION_2], coordinates[MoveTables.EDGE_ORIENTATION_2]);
+    }
+    return compression > 1 ? index / compression : index;
+  }
+
+  @Override
+  public String toString() {
+    String name = pattern == PatternDatabase.CORNERS ? "corners" : "edges " + pattern;
+    return compression > 1 ? name + " /" + compression : name;
+  }
+}
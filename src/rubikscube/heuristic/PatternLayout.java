@@ -0,0 +1,37 @@
+package rubikscube.heuristic;
+
+import rubikscube.MoveTables;
+
+public enum PatternLayout {
+  INTERLEAVED,
+  POSITION_MAJOR,
+  ORIENTATION_MAJOR;
+
+  public int getCornerIndex(int permutation, int orientation) {
+    switch (this) {
+      case POSITION_MAJOR:
+        return permutation * MoveTables.CORNER_ORIENTATIONS + orientation;
+      case ORIENTATION_MAJOR:
+        return orientation * MoveTables.CORNER_PERMUTATIONS + permutation;
+      default:
+        return MoveTables.getCornerState(permutation, orientation);
+    }
+  }
+
+  public int getEdgeIndex(int group, int position, int orientation) {
+    switch (this) {
+      case POSITION_MAJOR:
+        return position * MoveTables.EDGE_ORIENTATIONS + orientation;
+      case ORIENTATION_MAJOR:
+        return orientation * MoveTables.EDGE_POSITIONS + position;
+      default:
+        return MoveTables.getEdgeState(group, position, orientation);
+    }
+  }
+
+  public void getIndices(int[] coordinates, int[] indices) {
+    indices[0] = getCornerIndex(coordinates[MoveTables.CORNER_PERMUTATION], coordinates[MoveTables.CORNER_ORIENTATION]);
+    indices[1] = getEdgeIndex(0, coordinates[MoveTables.EDGE_POSITION_1], coordinates[MoveTables.EDGE_ORIENTATION_1]);
+    indices[2] = getEdgeIndex(1, coordinates[MoveTables.EDGE_POSITION_2], coordinates[MoveTables.EDGE_ORIENTATION_2]);
+  }
+}
@@ -0,0 +1,312 @@
+package rubikscube.heuristic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import rubikscube.MoveTables;
+
+public class PatternTuner {
+
+  private static final int MAX_HEURISTIC = 20;
+  private static final int profile_states = 1 << 22;
+  private static final int[] depths = {16, 17, 18};
+  private static final String[] defaults = {
+    "0,1,2,3,4,5/6,7,8,9,10,11",
+    "0,2,4,6,8,10/1,3,5,7,9,11",
+    "0,1,2,3,6,7/4,5,8,9,10,11",
+    "0,1,2,3,4,5,6/7,8,9,10,11",
+    "0,1,2,3/4,5,6,7/8,9,10,11",
+    "0,1,2,3,4,5:4/6,7,8,9,10,11:4",
+    "0,1,2,3,4,5,6:16/7,8,9,10,11"
+  };
+  private final long budget;
+  private final int samples;
+  private final long seed;
+  private ByteTable corners;
+
+  public PatternTuner(long budget, int samples, long seed) {
+    this.budget = budget;
+    this.samples = samples;
+    this.seed = seed;
+  }
+
+  public static void main(String[] args) {
+    if (args.length < 1) {
+      System.out.println("Usage: PatternTuner <budget MB> [partition[:ratio]/... ...] [--samples n] [--seed s]");
+      return;
+    }
+
+    long budget = Long.parseLong(args[0]) << 20;
+    int samples = 100000;
+    long seed = 1;
+    List<String> candidates = new ArrayList<String>();
+    for (int i = 1; i < args.length; i++) {
+      if (args[i].equals("--samples")) {
+        samples = Integer.parseInt(args[++i]);
+      } else if (args[i].equals("--seed")) {
+        seed = Long.parseLong(args[++i]);
+      } else {
+        candidates.add(args[i]);
+      }
+    }
+    if (candidates.isEmpty()) {
+      for (String candidate : defaults) {
+        candidates.add(candidate);
+      }
+    }
+
+    new PatternTuner(budget, samples, seed).rank(candidates);
+  }
+
+  public void rank(List<String> candidates) {
+    List<String> names = new ArrayList<String>();
+    List<double[]> predictions = new ArrayList<double[]>();
+    List<Long> memory = new ArrayList<Long>();
+    List<Double> means = new ArrayList<Double>();
+
+    for (String candidate : candidates) {
+      EdgePattern[] patterns = parse(candidate);
+      int[] compressions = getCompressions(candidate);
+      if (compressions == null) {
+        System.out.println("Skipping " + candidate + ": compression ratios must be powers of two up to 2^edges");
+        continue;
+      }
+      long bytes = getMemoryBytes(patterns, compressions);
+      if (bytes > budget) {
+        System.out.println("Skipping " + candidate + ": " + bytes + " bytes exceeds the budget");
+        continue;
+      }
+
+      double[] distribution = sample(patterns, compressions);
+      double mean = 0;
+      for (int h = 0; h < distribution.length; h++) {
+        mean += h * distribution[h];
+      }
+
+      double[] prediction = new double[depths.length];
+      for (int i = 0; i < depths.length; i++) {
+        prediction[i] = predict(distribution, depths[i]);
+      }
+
+      int k = 0;
+      while (k < predictions.size() && predictions.get(k)[depths.length - 1] <= prediction[depths.length - 1]) {
+        k++;
+      }
+      names.add(k, candidate);
+      predictions.add(k, prediction);
+      memory.add(k, bytes);
+      means.add(k, mean);
+    }
+
+    String header = "rank,partition,memory_bytes,mean_heuristic";
+    for (int depth : depths) {
+      header += ",predicted_nodes_" + depth;
+    }
+    System.out.println(header);
+    for (int k = 0; k < names.size(); k++) {
+      String row = (k + 1) + ",\"" + names.get(k) + "\"," + memory.get(k) + "," + String.format("%.3f", means.get(k));
+      for (double prediction : predictions.get(k)) {
+        row += "," + String.format("%.0f", prediction);
+      }
+      System.out.println(row);
+    }
+  }
+
+  public static double predict(double[] distribution, int depth) {
+    double[] nodes = getBruteForceNodes(depth);
+    double total = 0;
+    double cumulative = 0;
+    for (int i = depth; i >= 0; i--) {
+      if (depth - i < distribution.length) {
+        cumulative += distribution[depth - i];
+      }
+      total += nodes[i] * cumulative;
+    }
+    return total;
+  }
+
+  public static double[] getBruteForceNodes(int depth) {
+    double[] nodes = new double[depth + 1];
+    nodes[0] = 1;
+    double first = 9;
+    double second = 9;
+    for (int i = 1; i <= depth; i++) {
+      nodes[i] = first + second;
+      double nextFirst = 3 * (2 * first + 2 * second);
+      double nextSecond = 3 * (3 * first + 2 * second);
+      first = nextFirst;
+      second = nextSecond;
+    }
+    return nodes;
+  }
+
+  private double[] sample(EdgePattern[] patterns, int[] compressions) {
+    Profile[] profiles = new Profile[patterns.length];
+    for (int g = 0; g < patterns.length; g++) {
+      profiles[g] = new Profile(patterns[g], compressions[g]);
+    }
+    ByteTable cornerHeuristic = getCorners();
+
+    Random random = new Random(seed);
+    byte[] cubies = new byte[MoveTables.CUBIES];
+    double[] distribution = new double[MAX_HEURISTIC + 1];
+    for (int n = 0; n < samples; n++) {
+      MoveTables.unrankCubies(random.nextInt(MoveTables.CORNER_PERMUTATIONS), random.nextInt(MoveTables.CORNER_ORIENTATIONS),
+              random.nextInt(MoveTables.CUBE_EDGE_PERMUTATIONS), random.nextInt(MoveTables.CUBE_EDGE_ORIENTATIONS), cubies);
+      int h = cornerHeuristic.get(MoveTables.getCornerState(cubies));
+      for (int g = 0; g < patterns.length; g++) {
+        h = Math.max(h, profiles[g].get(cubies, random));
+      }
+      distribution[h]++;
+    }
+    for (int h = 0; h < distribution.length; h++) {
+      distribution[h] /= samples;
+    }
+    return distribution;
+  }
+
+  private long getMemoryBytes(EdgePattern[] patterns, int[] compressions) {
+    long bytes = MoveTables.CORNER_STATES;
+    for (int g = 0; g < patterns.length; g++) {
+      bytes += patterns[g].size() >>> compressions[g];
+    }
+    return bytes;
+  }
+
+  private ByteTable getCorners() {
+    if (corners == null) {
+      System.out.println("Generating corner pattern");
+      CornerHeuristicGenerator generator = new CornerHeuristicGenerator();
+      generator.generate(MAX_HEURISTIC);
+      corners = generator.getHeuristic();
+    }
+    return corners;
+  }
+
+  private static EdgePattern[] parse(String candidate) {
+    String[] groups = candidate.split("/");
+    EdgePattern[] patterns = new EdgePattern[groups.length];
+    for (int g = 0; g < groups.length; g++) {
+      patterns[g] = EdgePattern.parse(groups[g].split(":")[0]);
+    }
+    return patterns;
+  }
+
+  private static int[] getCompressions(String candidate) {
+    String[] groups = candidate.split("/");
+    int[] compressions = new int[groups.length];
+    for (int g = 0; g < groups.length; g++) {
+      String[] tokens = groups[g].split(":");
+      int ratio = tokens.length > 1 ? Integer.parseInt(tokens[1].trim()) : 1;
+      int bits = Integer.numberOfTrailingZeros(ratio);
+      if (ratio < 1 || Integer.bitCount(ratio) != 1 || bits > tokens[0].split(",").length) {
+        return null;
+      }
+      compressions[g] = bits;
+    }
+    return compressions;
+  }
+
+  private static class Profile {
+
+    private final EdgePattern pattern;
+    private final int compression;
+    private final DistanceTable blocks = new DistanceTable();
+    private final long[] counts = new long[MAX_HEURISTIC + 1];
+    private final double[] tail = new double[MAX_HEURISTIC + 1];
+
+    private Profile(EdgePattern pattern, int compression) {
+      this.pattern = pattern;
+      this.compression = compression;
+      int depth = search();
+      System.out.println("Profiled edge pattern " + pattern + ":" + (1 << compression) + " to depth " + depth);
+      extrapolate(depth);
+    }
+
+    private int search() {
+      int count = pattern.getEdgeCount();
+      byte[] slots = new byte[count];
+      byte[] moved = new byte[count];
+      DistanceTable states = new DistanceTable();
+      long solved = pattern.getSolvedState();
+      states.put(solved, 0, 0);
+      blocks.put(solved >>> compression, 0, 0);
+      counts[0] = 1;
+
+      long[] frontier = {solved};
+      int size = 1;
+      int depth = 0;
+      while (size > 0 && depth < DistanceTable.MAX_DISTANCE - 1
+              && states.size() + (long) size * MoveTables.MOVES <= profile_states) {
+        long[] next = new long[Math.max(16, size * 4)];
+        int nextSize = 0;
+        for (int i = 0; i < size; i++) {
+          pattern.getSlots(frontier[i], slots);
+          int orientation = pattern.getOrientation(frontier[i]);
+          for (int move = 0; move < MoveTables.MOVES; move++) {
+            int flips = 0;
+            for (int j = 0; j < count; j++) {
+              int edge = MoveTables.moveEdge(slots[j] * 2 + ((orientation >> j) & 1), move);
+              moved[j] = (byte) (edge / 2);
+              flips |= (edge % 2) << j;
+            }
+
+            long child = pattern.getState(moved, flips);
+            if (!states.put(child, 0, depth + 1)) {
+              continue;
+            }
+            if (blocks.put(child >>> compression, 0, depth + 1)) {
+              counts[depth + 1]++;
+            }
+            if (nextSize == next.length) {
+              next = Arrays.copyOf(next, next.length * 2);
+            }
+            next[nextSize++] = child;
+          }
+        }
+        frontier = next;
+        size = nextSize;
+        if (size > 0) {
+          depth++;
+        }
+      }
+      return depth;
+    }
+
+    private void extrapolate(int depth) {
+      double remaining = (pattern.size() >>> compression) - blocks.size();
+      double growth = depth > 0 ? (double) counts[depth] / counts[depth - 1] : MoveTables.MOVES;
+      double decay = depth > 1 ? Math.min(1, growth * counts[depth - 2] / counts[depth - 1]) : 1;
+      double layer = counts[depth];
+      for (int d = depth + 1; d <= MAX_HEURISTIC && remaining > 0; d++) {
+        growth *= decay;
+        layer = growth > 1 && d < MAX_HEURISTIC ? Math.min(layer * growth, remaining) : remaining;
+        tail[d] = layer;
+        remaining -= layer;
+      }
+
+      double total = 0;
+      for (double t : tail) {
+        total += t;
+      }
+      for (int d = 0; d < tail.length && total > 0; d++) {
+        tail[d] /= total;
+      }
+    }
+
+    private int get(byte[] cubies, Random random) {
+      int h = blocks.get(pattern.getState(cubies) >>> compression, 0);
+      if (h >= 0) {
+        return h;
+      }
+      double r = random.nextDouble();
+      int d = 0;
+      while (d < MAX_HEURISTIC && (tail[d] == 0 || r >= tail[d])) {
+        r -= tail[d];
+        d++;
+      }
+      return d;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package rubikscube.heuristic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import rubikscube.MoveTables;
+
+public class PerimeterDatabase {
+
+  private static final int corner_bits = 25;
+  private final int depth;
+  private final DistanceTable table = new DistanceTable();
+
+  public PerimeterDatabase(int depth) {
+    this.depth = depth;
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  public int size() {
+    return table.size();
+  }
+
+  public long getMemoryBytes() {
+    return table.getMemoryBytes();
+  }
+
+  public static long estimateMemoryBytes(long fileBytes) {
+    return DistanceTable.estimateMemoryBytes(DistanceTable.getEntries(fileBytes - 8));
+  }
+
+  public int get(byte[] cubies) {
+    int corners = MoveTables.getCornerState(cubies);
+    return table.get(getKey(corners, cubies), corners >>> corner_bits);
+  }
+
+  public boolean put(byte[] cubies, int distance) {
+    int corners = MoveTables.getCornerState(cubies);
+    return table.put(getKey(corners, cubies), corners >>> corner_bits, distance);
+  }
+
+  private static long getKey(int corners, byte[] cubies) {
+    long edges = ((long) MoveTables.getEdgePermutation(cubies) << 11) | MoveTables.getEdgeOrientation(cubies);
+    return (edges << corner_bits) | (corners & ((1 << corner_bits) - 1));
+  }
+
+  public void write(String file) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+      out.writeInt(depth);
+      table.write(out);
+    }
+  }
+
+  public static PerimeterDatabase read(String file) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      PerimeterDatabase perimeter = new PerimeterDatabase(in.readInt());
+      perimeter.table.read(in);
+      return perimeter;
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package rubikscube.heuristic;
+
+import java.io.IOException;
+import java.util.Arrays;
+import rubikscube.MoveTables;
+
+public class PerimeterGenerator extends HeuristicGenerator {
+
+  private static final int DEFAULT_DEPTH = 6;
+  private final PerimeterDatabase perimeter;
+  private byte[] frontier = new byte[MoveTables.CUBIES];
+  private int frontierSize = 1;
+
+  public PerimeterGenerator(int depth) {
+    perimeter = new PerimeterDatabase(depth);
+    MoveTables.getSolvedCubies(frontier);
+    perimeter.put(frontier, 0);
+  }
+
+  public static void main(String[] args) {
+    int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+    PerimeterGenerator generator = new PerimeterGenerator(depth);
+    generator.generate(depth);
+    try {
+      generator.getPerimeter().write("perimeter.bin");
+    } catch (IOException e) {
+      System.out.println("There is an error writing to the file.");
+    }
+  }
+
+  public PerimeterDatabase getPerimeter() {
+    return perimeter;
+  }
+
+  @Override
+  protected long expand(int depth) {
+    boolean last = depth + 1 >= perimeter.getDepth();
+    byte[] next = new byte[last ? 0 : frontierSize * 16 * MoveTables.CUBIES];
+    int nextSize = 0;
+    byte[] cubies = new byte[MoveTables.CUBIES];
+    byte[] child = new byte[MoveTables.CUBIES];
+    long added = 0;
+
+    for (int i = 0; i < frontierSize; i++) {
+      System.arraycopy(frontier, i * MoveTables.CUBIES, cubies, 0, MoveTables.CUBIES);
+      for (int move = 0; move < MoveTables.MOVES; move++) {
+        MoveTables.moveCubies(cubies, move, child);
+        if (perimeter.put(child, depth + 1)) {
+          added++;
+          if (!last) {
+            if ((nextSize + 1) * MoveTables.CUBIES > next.length) {
+              next = Arrays.copyOf(next, next.length * 2);
+            }
+            System.arraycopy(child, 0, next, nextSize * MoveTables.CUBIES, MoveTables.CUBIES);
+            nextSize++;
+          }
+        }
+      }
+    }
+
+    frontier = next;
+    frontierSize = nextSize;
+    return added;
+  }
+}
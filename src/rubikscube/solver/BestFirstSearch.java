@@ -0,0 +1,307 @@
+package rubikscube.solver;
+
+import java.util.Arrays;
+import rubikscube.MoveTables;
+import rubikscube.RubiksCube;
+import rubikscube.heuristic.DistanceTable;
+
+class BestFirstSearch {
+
+  private static final int levels = DepthFirstSearch.MAX_DEPTH + 1;
+  private static final int entry_size = 4;
+  private static final int closed_size = 5;
+  private static final int initial_capacity = 1 << 10;
+  private static final int check_interval = 1023;
+  private final OptimalSolver solver;
+  private final int[][] buckets = new int[levels * levels][];
+  private final int[] sizes = new int[levels * levels];
+  private final int[] entry = new int[entry_size];
+  private final int[] coordinates = new int[MoveTables.COORDINATES];
+  private final byte[] root = new byte[MoveTables.CUBIES];
+  private final byte[] cubies = new byte[MoveTables.CUBIES];
+  private final byte[] path = new byte[levels];
+  private final byte[] childMoves = new byte[MoveTables.MOVES];
+  private final int[][] childCoordinates = new int[MoveTables.MOVES][MoveTables.COORDINATES];
+  private final byte[][] childCubies = new byte[MoveTables.MOVES][MoveTables.CUBIES];
+  private final int[] childHeuristics = new int[MoveTables.MOVES];
+  private final SearchStatistics statistics = new SearchStatistics();
+  private SolveLimits limits;
+  private SolveStatus status;
+  private boolean tracking;
+  private int[] closed;
+  private int[] table;
+  private int size;
+  private int minimum;
+
+  BestFirstSearch(OptimalSolver solver) {
+    this.solver = solver;
+  }
+
+  public SolveResult solve(RubiksCube c, SolveLimits limits) {
+    prepare(limits);
+
+    statistics.start();
+    c.getCubies(root);
+    MoveTables.getCoordinates(root, coordinates);
+    int heuristic = solver.getHeuristic(coordinates, root);
+    if (heuristic < levels) {
+      push(heuristic, 0, getCornerIndex(coordinates), getEdgeIndex(coordinates, 0), getEdgeIndex(coordinates, 1), -1);
+    }
+
+    int lowerBound = heuristic;
+    int solution = -1;
+    int best = -1;
+    int bestHeuristic = Integer.MAX_VALUE;
+    while (true) {
+      int bucket = pop();
+      if (bucket < 0) {
+        lowerBound = Math.max(lowerBound, levels);
+        break;
+      }
+      int cost = bucket / levels;
+      int depth = bucket % levels;
+      lowerBound = Math.max(lowerBound, cost);
+      int index = find(entry[0], entry[1], entry[2]);
+      if (index < 0) {
+        index = add(entry[0], entry[1], entry[2], entry[3], depth);
+      } else if (closed[index * closed_size + 4] > depth) {
+        closed[index * closed_size + 3] = entry[3];
+        closed[index * closed_size + 4] = depth;
+      } else {
+        continue;
+      }
+      unpack(entry[0], entry[1], entry[2], coordinates);
+      if (MoveTables.isSolved(coordinates)) {
+        status = SolveStatus.SOLVED;
+        solution = index;
+        break;
+      }
+
+      statistics.expanded();
+      if (isStopped()) {
+        break;
+      }
+      if (cost - depth < bestHeuristic) {
+        bestHeuristic = cost - depth;
+        best = index;
+      }
+      if (depth < levels - 1) {
+        expand(index, depth, cost);
+      }
+    }
+    statistics.stop();
+
+    int length = solution >= 0 ? trace(solution) : best >= 0 ? trace(best) : 0;
+    statistics.solved(solution >= 0 ? length : -1);
+    release();
+    return new SolveResult(status, Arrays.copyOf(path, length), status == SolveStatus.SOLVED ? length : lowerBound,
+            statistics.getNodesExpanded(), statistics.getElapsedNanos());
+  }
+
+  public SearchStatistics getStatistics() {
+    return statistics;
+  }
+
+  private void prepare(SolveLimits limits) {
+    statistics.reset();
+    this.limits = limits;
+    tracking = solver.needsCubies();
+    status = SolveStatus.NO_SOLUTION;
+    closed = new int[initial_capacity * closed_size];
+    table = new int[initial_capacity * 2];
+    size = 0;
+    minimum = 0;
+    for (int i = 0; i < sizes.length; i++) {
+      sizes[i] = 0;
+    }
+  }
+
+  private void release() {
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = null;
+    }
+    closed = null;
+    table = null;
+  }
+
+  private boolean isStopped() {
+    long nodes = statistics.getNodesExpanded();
+    if (nodes > limits.getMaxNodes()) {
+      status = SolveStatus.NODE_BUDGET;
+    } else if ((nodes & check_interval) != 0) {
+      return false;
+    } else if (limits.isCancelled()) {
+      status = SolveStatus.CANCELLED;
+    } else if (limits.isExpired()) {
+      status = SolveStatus.DEADLINE;
+    } else {
+      return false;
+    }
+    return true;
+  }
+
+  private void expand(int index, int depth, int cost) {
+    int previous = depth > 0 ? closed[index * closed_size + 3] % MoveTables.MOVES / 3 : -1;
+    if (tracking) {
+      replay(index);
+    }
+
+    int count = 0;
+    for (byte face : RubiksCube.getFaces()) {
+      if (face == previous || face == (previous ^ 1) && face < previous) {
+        continue;
+      }
+
+      for (int i = 0; i < 3; i++) {
+        byte move = OptimalSolver.encode(face, (byte) (i + 1));
+        childMoves[count] = move;
+        MoveTables.move(coordinates, move, childCoordinates[count]);
+        if (tracking) {
+          MoveTables.moveCubies(cubies, move, childCubies[count]);
+        }
+        count++;
+      }
+    }
+
+    solver.getHeuristics(childCoordinates, childCubies, count, childHeuristics);
+    for (int n = 0; n < count; n++) {
+      statistics.generated();
+      int f = Math.max(depth + 1 + childHeuristics[n], cost);
+      if (f >= levels) {
+        continue;
+      }
+
+      int[] child = childCoordinates[n];
+      int corner = getCornerIndex(child);
+      int edge1 = getEdgeIndex(child, 0);
+      int edge2 = getEdgeIndex(child, 1);
+      int found = find(corner, edge1, edge2);
+      if (found < 0 || closed[found * closed_size + 4] > depth + 1) {
+        push(f, depth + 1, corner, edge1, edge2, index * MoveTables.MOVES + childMoves[n]);
+      }
+    }
+  }
+
+  private void push(int cost, int depth, int corner, int edge1, int edge2, int parent) {
+    int b = cost * levels + depth;
+    int offset = sizes[b];
+    int[] bucket = buckets[b];
+    if (bucket == null) {
+      bucket = buckets[b] = new int[initial_capacity * entry_size];
+    } else if (offset == bucket.length) {
+      bucket = buckets[b] = Arrays.copyOf(bucket, bucket.length * 2);
+    }
+
+    bucket[offset] = corner;
+    bucket[offset + 1] = edge1;
+    bucket[offset + 2] = edge2;
+    bucket[offset + 3] = parent;
+    sizes[b] = offset + entry_size;
+    if (cost < minimum) {
+      minimum = cost;
+    }
+  }
+
+  private int pop() {
+    for (; minimum < levels; minimum++) {
+      for (int depth = levels - 1; depth >= 0; depth--) {
+        int b = minimum * levels + depth;
+        if (sizes[b] > 0) {
+          sizes[b] -= entry_size;
+          System.arraycopy(buckets[b], sizes[b], entry, 0, entry_size);
+          return b;
+        }
+      }
+    }
+    return -1;
+  }
+
+  private int find(int corner, int edge1, int edge2) {
+    int mask = table.length - 1;
+    for (int i = hash(corner, edge1, edge2) & mask; table[i] != 0; i = (i + 1) & mask) {
+      int k = (table[i] - 1) * closed_size;
+      if (closed[k] == corner && closed[k + 1] == edge1 && closed[k + 2] == edge2) {
+        return table[i] - 1;
+      }
+    }
+    return -1;
+  }
+
+  private int add(int corner, int edge1, int edge2, int parent, int depth) {
+    if ((size + 1) * closed_size > closed.length) {
+      closed = Arrays.copyOf(closed, closed.length * 2);
+    }
+    if ((size + 1) * 2 > table.length) {
+      resize();
+    }
+
+    int k = size * closed_size;
+    closed[k] = corner;
+    closed[k + 1] = edge1;
+    closed[k + 2] = edge2;
+    closed[k + 3] = parent;
+    closed[k + 4] = depth;
+    insert(size);
+    return size++;
+  }
+
+  private void resize() {
+    table = new int[table.length * 2];
+    for (int i = 0; i < size; i++) {
+      insert(i);
+    }
+  }
+
+  private void insert(int index) {
+    int k = index * closed_size;
+    int mask = table.length - 1;
+    int i = hash(closed[k], closed[k + 1], closed[k + 2]) & mask;
+    while (table[i] != 0) {
+      i = (i + 1) & mask;
+    }
+    table[i] = index + 1;
+  }
+
+  static int hash(int corner, int edge1, int edge2) {
+    return DistanceTable.hash(((long) corner << 32 | edge1) ^ ((long) edge2 * 0x9e3779b97f4a7c15L));
+  }
+
+  private int trace(int index) {
+    int length = 0;
+    for (int ref = closed[index * closed_size + 3]; ref >= 0; ref = closed[ref / MoveTables.MOVES * closed_size + 3]) {
+      length++;
+    }
+    int ply = length;
+    for (int ref = closed[index * closed_size + 3]; ref >= 0; ref = closed[ref / MoveTables.MOVES * closed_size + 3]) {
+      path[--ply] = (byte) (ref % MoveTables.MOVES);
+    }
+    return length;
+  }
+
+  private void replay(int index) {
+    int length = trace(index);
+    System.arraycopy(root, 0, cubies, 0, MoveTables.CUBIES);
+    for (int i = 0; i < length; i++) {
+      MoveTables.moveCubies(cubies, path[i], childCubies[0]);
+      System.arraycopy(childCubies[0], 0, cubies, 0, MoveTables.CUBIES);
+    }
+  }
+
+  static int getCornerIndex(int[] coordinates) {
+    return coordinates[MoveTables.CORNER_ORIENTATION] * MoveTables.CORNER_PERMUTATIONS + coordinates[MoveTables.CORNER_PERMUTATION];
+  }
+
+  static int getEdgeIndex(int[] coordinates, int group) {
+    int position = group == 0 ? MoveTables.EDGE_POSITION_1 : MoveTables.EDGE_POSITION_2;
+    return coordinates[position + 1] * MoveTables.EDGE_POSITIONS + coordinates[position];
+  }
+
+  static void unpack(int corner, int edge1, int edge2, int[] coordinates) {
+    coordinates[MoveTables.CORNER_PERMUTATION] = corner % MoveTables.CORNER_PERMUTATIONS;
+    coordinates[MoveTables.CORNER_ORIENTATION] = corner / MoveTables.CORNER_PERMUTATIONS;
+    coordinates[MoveTables.EDGE_POSITION_1] = edge1 % MoveTables.EDGE_POSITIONS;
+    coordinates[MoveTables.EDGE_ORIENTATION_1] = edge1 / MoveTables.EDGE_POSITIONS;
+    coordinates[MoveTables.EDGE_POSITION_2] = edge2 % MoveTables.EDGE_POSITIONS;
+    coordinates[MoveTables.EDGE_ORIENTATION_2] = edge2 / MoveTables.EDGE_POSITIONS;
+  }
+}
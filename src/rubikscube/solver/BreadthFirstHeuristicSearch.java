@@ -0,0 +1,330 @@
+package rubikscube.solver;
+
+import java.util.Arrays;
+import rubikscube.MoveTables;
+import rubikscube.RubiksCube;
+
+class BreadthFirstHeuristicSearch {
+
+  private static final int FOUND = -1;
+  private static final int STOPPED = -2;
+  private static final int entry_size = 7;
+  private static final int initial_capacity = 1 << 10;
+  private static final int check_interval = 1023;
+  private final OptimalSolver solver;
+  private final Layer[] layers = {new Layer(), new Layer(), new Layer()};
+  private final int[] coordinates = new int[MoveTables.COORDINATES];
+  private final byte[] root = new byte[MoveTables.CUBIES];
+  private final byte[] slots = new byte[MoveTables.CUBIES];
+  private final byte[] path = new byte[DepthFirstSearch.MAX_DEPTH];
+  private final int[] relay = new int[3];
+  private final int[] found = new int[3];
+  private final int[] inherited = new int[3];
+  private final byte[] childMoves = new byte[MoveTables.MOVES];
+  private final int[][] childCoordinates = new int[MoveTables.MOVES][MoveTables.COORDINATES];
+  private final byte[][] childCubies = new byte[MoveTables.MOVES][MoveTables.CUBIES];
+  private final int[] childHeuristics = new int[MoveTables.MOVES];
+  private final SearchStatistics statistics = new SearchStatistics();
+  private SolveLimits limits;
+  private SolveStatus status;
+  private boolean tracking;
+  private int foundDepth;
+  private int relayDepth;
+
+  BreadthFirstHeuristicSearch(OptimalSolver solver) {
+    this.solver = solver;
+  }
+
+  public SolveResult solve(RubiksCube c, SolveLimits limits) {
+    statistics.sources(solver.getSources());
+    statistics.reset();
+    this.limits = limits;
+    tracking = solver.needsCubies();
+    status = SolveStatus.NO_SOLUTION;
+
+    statistics.start();
+    c.getCubies(root);
+    MoveTables.getCoordinates(root, coordinates);
+    int[] start = pack(coordinates);
+    int bound = solver.getHeuristic(coordinates, root);
+    int length = 0;
+    if (MoveTables.isSolved(coordinates)) {
+      status = SolveStatus.SOLVED;
+    }
+    while (status == SolveStatus.NO_SOLUTION && bound <= DepthFirstSearch.MAX_DEPTH) {
+      statistics.iteration();
+      int next = search(start, 0, null, bound, bound);
+      if (next == STOPPED) {
+        break;
+      }
+      if (next != FOUND) {
+        bound = next;
+        continue;
+      }
+
+      length = foundDepth;
+      int[] goal = found.clone();
+      int[] middle = relay.clone();
+      int mid = relayDepth;
+      if (length < 2 || middle[0] < 0) {
+        status = reconstruct(start, 0, goal, length, bound) ? SolveStatus.SOLVED : status;
+      } else if (reconstruct(start, 0, middle, mid, bound) && reconstruct(middle, mid, goal, length, bound)) {
+        status = SolveStatus.SOLVED;
+      }
+    }
+    statistics.stop();
+    statistics.solved(status == SolveStatus.SOLVED ? length : -1);
+
+    if (status != SolveStatus.SOLVED) {
+      length = 0;
+    }
+    return new SolveResult(status, Arrays.copyOf(path, length), status == SolveStatus.SOLVED ? length : Math.min(bound,
+            DepthFirstSearch.MAX_DEPTH + 1), statistics.getNodesExpanded(), statistics.getElapsedNanos());
+  }
+
+  public SearchStatistics getStatistics() {
+    return statistics;
+  }
+
+  private boolean reconstruct(int[] start, int depth, int[] goal, int limit, int bound) {
+    if (limit == depth) {
+      return true;
+    }
+    if (limit - depth == 1) {
+      unpack(start, coordinates);
+      for (byte move = 0; move < MoveTables.MOVES; move++) {
+        MoveTables.move(coordinates, move, childCoordinates[0]);
+        if (matches(childCoordinates[0], goal)) {
+          path[depth] = move;
+          return true;
+        }
+      }
+      throw new IllegalStateException("There is no move between layers " + depth + " and " + limit);
+    }
+
+    int result = search(start, depth, goal, limit, bound);
+    if (result == STOPPED) {
+      return false;
+    }
+    if (result != FOUND || foundDepth != limit) {
+      throw new IllegalStateException("There is no path between layers " + depth + " and " + limit);
+    }
+    int[] middle = relay.clone();
+    int mid = (depth + limit) / 2;
+    return reconstruct(start, depth, middle, mid, bound) && reconstruct(middle, mid, goal, limit, bound);
+  }
+
+  private int search(int[] start, int depth, int[] goal, int limit, int bound) {
+    int mid = (depth + limit) / 2;
+    relayDepth = mid;
+    Layer previous = layers[0];
+    Layer current = layers[1];
+    Layer next = layers[2];
+    previous.clear();
+    current.clear();
+    next.clear();
+    current.add(start[0], start[1], start[2], -1, depth == mid ? start : null);
+    relay[0] = -1;
+
+    int min = Integer.MAX_VALUE;
+    for (int g = depth; g < limit && current.size > 0; g++) {
+      for (int i = 0; i < current.size; i++) {
+        statistics.expanded();
+        if (isStopped()) {
+          return STOPPED;
+        }
+
+        int k = i * entry_size;
+        int[] entries = current.entries;
+        unpack(entries[k], entries[k + 1], entries[k + 2], coordinates);
+        int count = generate(entries[k + 3], previous, current, next);
+        if (count == 0) {
+          continue;
+        }
+
+        solver.getHeuristics(childCoordinates, childCubies, count, childHeuristics, bound - g - 1, statistics);
+        for (int n = 0; n < count; n++) {
+          statistics.generated();
+          int[] child = childCoordinates[n];
+          if (goal == null ? MoveTables.isSolved(child) : matches(child, goal)) {
+            foundDepth = g + 1;
+            pack(child, found);
+            if (g + 1 == mid) {
+              System.arraycopy(found, 0, relay, 0, 3);
+            } else if (g + 1 > mid) {
+              System.arraycopy(current.entries, k + 4, relay, 0, 3);
+            }
+            return FOUND;
+          }
+
+          int f = g + 1 + childHeuristics[n];
+          if (f > bound) {
+            min = Math.min(min, f);
+            continue;
+          }
+          int corner = BestFirstSearch.getCornerIndex(child);
+          int edge1 = BestFirstSearch.getEdgeIndex(child, 0);
+          int edge2 = BestFirstSearch.getEdgeIndex(child, 1);
+          if (g + 1 == mid) {
+            next.add(corner, edge1, edge2, childMoves[n], null);
+            next.setRelay(next.size - 1, corner, edge1, edge2);
+          } else {
+            next.add(corner, edge1, edge2, childMoves[n], g + 1 > mid ? current.getRelay(i, inherited) : null);
+          }
+        }
+      }
+      statistics.stored(previous.size + current.size + next.size);
+
+      Layer released = previous;
+      previous = current;
+      current = next;
+      next = released;
+      next.clear();
+    }
+    if (current.size > 0) {
+      min = Math.min(min, limit + 1);
+    }
+    return min;
+  }
+
+  private int generate(int last, Layer previous, Layer current, Layer next) {
+    int face = last >= 0 ? last / 3 : -1;
+    int count = 0;
+    for (byte move = 0; move < MoveTables.MOVES; move++) {
+      if (move / 3 == face) {
+        continue;
+      }
+
+      int[] child = childCoordinates[count];
+      MoveTables.move(coordinates, move, child);
+      int corner = BestFirstSearch.getCornerIndex(child);
+      int edge1 = BestFirstSearch.getEdgeIndex(child, 0);
+      int edge2 = BestFirstSearch.getEdgeIndex(child, 1);
+      if (previous.contains(corner, edge1, edge2) || current.contains(corner, edge1, edge2)
+              || next.contains(corner, edge1, edge2)) {
+        continue;
+      }
+      if (tracking) {
+        MoveTables.getCubies(child, childCubies[count], slots);
+      }
+      childMoves[count] = move;
+      count++;
+    }
+    return count;
+  }
+
+  private boolean isStopped() {
+    long nodes = statistics.getNodesExpanded();
+    if (nodes > limits.getMaxNodes()) {
+      status = SolveStatus.NODE_BUDGET;
+    } else if ((nodes & check_interval) != 0) {
+      return false;
+    } else if (limits.isCancelled()) {
+      status = SolveStatus.CANCELLED;
+    } else if (limits.isExpired()) {
+      status = SolveStatus.DEADLINE;
+    } else {
+      return false;
+    }
+    return true;
+  }
+
+  private static boolean matches(int[] coordinates, int[] state) {
+    return BestFirstSearch.getCornerIndex(coordinates) == state[0] && BestFirstSearch.getEdgeIndex(coordinates, 0) == state[1]
+            && BestFirstSearch.getEdgeIndex(coordinates, 1) == state[2];
+  }
+
+  private static int[] pack(int[] coordinates) {
+    int[] state = new int[3];
+    pack(coordinates, state);
+    return state;
+  }
+
+  private static void pack(int[] coordinates, int[] state) {
+    state[0] = BestFirstSearch.getCornerIndex(coordinates);
+    state[1] = BestFirstSearch.getEdgeIndex(coordinates, 0);
+    state[2] = BestFirstSearch.getEdgeIndex(coordinates, 1);
+  }
+
+  private static void unpack(int[] state, int[] coordinates) {
+    BestFirstSearch.unpack(state[0], state[1], state[2], coordinates);
+  }
+
+  private static void unpack(int corner, int edge1, int edge2, int[] coordinates) {
+    BestFirstSearch.unpack(corner, edge1, edge2, coordinates);
+  }
+
+  private static class Layer {
+
+    private int[] entries = new int[initial_capacity * entry_size];
+    private int[] table = new int[initial_capacity * 2];
+    private int size;
+
+    void clear() {
+      if (size > 0) {
+        Arrays.fill(table, 0);
+      }
+      size = 0;
+    }
+
+    boolean contains(int corner, int edge1, int edge2) {
+      int mask = table.length - 1;
+      for (int i = BestFirstSearch.hash(corner, edge1, edge2) & mask; table[i] != 0; i = (i + 1) & mask) {
+        int k = (table[i] - 1) * entry_size;
+        if (entries[k] == corner && entries[k + 1] == edge1 && entries[k + 2] == edge2) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    void add(int corner, int edge1, int edge2, int move, int[] relay) {
+      if ((size + 1) * entry_size > entries.length) {
+        entries = Arrays.copyOf(entries, entries.length * 2);
+      }
+      if ((size + 1) * 2 > table.length) {
+        resize();
+      }
+
+      int k = size * entry_size;
+      entries[k] = corner;
+      entries[k + 1] = edge1;
+      entries[k + 2] = edge2;
+      entries[k + 3] = move;
+      if (relay != null) {
+        System.arraycopy(relay, 0, entries, k + 4, 3);
+      }
+      insert(size);
+      size++;
+    }
+
+    void setRelay(int index, int corner, int edge1, int edge2) {
+      int k = index * entry_size;
+      entries[k + 4] = corner;
+      entries[k + 5] = edge1;
+      entries[k + 6] = edge2;
+    }
+
+    int[] getRelay(int index, int[] relay) {
+      System.arraycopy(entries, index * entry_size + 4, relay, 0, 3);
+      return relay;
+    }
+
+    private void resize() {
+      table = new int[table.length * 2];
+      for (int i = 0; i < size; i++) {
+        insert(i);
+      }
+    }
+
+    private void insert(int index) {
+      int k = index * entry_size;
+      int mask = table.length - 1;
+      int i = BestFirstSearch.hash(entries[k], entries[k + 1], entries[k + 2]) & mask;
+      while (table[i] != 0) {
+        i = (i + 1) & mask;
+      }
+      table[i] = index + 1;
+    }
+  }
+}
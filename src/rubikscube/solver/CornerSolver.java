@@ -0,0 +1,120 @@
+package rubikscube.solver;
+
+import java.io.File;
+import java.io.IOException;
+import rubikscube.MoveTables;
+import rubikscube.RubiksCubeCorners;
+import rubikscube.heuristic.ByteTable;
+import rubikscube.heuristic.PatternDatabase;
+import rubikscube.heuristic.PatternLayout;
+
+public class CornerSolver {
+
+  private static CornerSolver instance;
+  private final ByteTable distances;
+
+  public CornerSolver(ByteTable distances) {
+    this.distances = distances;
+  }
+
+  public static void main(String[] args) {
+    RubiksCubeCorners cube = new RubiksCubeCorners();
+    for (String move : args) {
+      cube.rotateFace((byte) "YWGBRO".indexOf(move.charAt(0)), move.charAt(1) - '0');
+    }
+
+    CornerSolver solver = CornerSolver.getInstance();
+    long start = System.nanoTime();
+    byte[] moves = solver.solve(cube);
+    long nanos = System.nanoTime() - start;
+    System.out.println(moves.length == 0 ? "Already solved" : SolveResult.format(moves));
+    System.out.println("Distance: " + moves.length + " Time: " + (nanos / 1000) + "us");
+  }
+
+  public static CornerSolver getInstance() {
+    if (instance == null) {
+      synchronized (CornerSolver.class) {
+        if (instance == null) {
+          instance = new CornerSolver(populateDistances());
+        }
+      }
+    }
+    return instance;
+  }
+
+  private static ByteTable populateDistances() {
+    try {
+      PatternDatabase database = new File("heuristic1.bin").exists() ? PatternDatabase.read("heuristic1.bin")
+              : PatternDatabase.readText("heuristic1.txt", PatternDatabase.CORNERS);
+      if (database.getCompression() > 1) {
+        throw new IllegalStateException("The corner table is compressed by " + database.getCompression()
+                + " and does not store exact distances.");
+      }
+      ByteTable distances = database.convert(PatternLayout.INTERLEAVED).getTable();
+      if (distances.get(MoveTables.getCornerState(0, 0)) != 0) {
+        System.out.println("The corner table does not start from the solved state.");
+      }
+      if (!database.isComplete()) {
+        System.out.println("The corner table is only generated to depth " + database.getDepth() + ".");
+      }
+      return distances;
+    } catch (IOException e) {
+      System.out.println("There is an error reading from the file.");
+      return new ByteTable(MoveTables.CORNER_STATES);
+    }
+  }
+
+  public int getDistance(RubiksCubeCorners cube) {
+    return distances.get(cube.getState());
+  }
+
+  public int[] getDistances(RubiksCubeCorners[] cubes) {
+    int[] result = new int[cubes.length];
+    for (int i = 0; i < cubes.length; i++) {
+      result[i] = getDistance(cubes[i]);
+    }
+    return result;
+  }
+
+  public byte[] solve(RubiksCubeCorners cube) {
+    return solve(cube.getState());
+  }
+
+  public byte[][] solve(RubiksCubeCorners[] cubes) {
+    byte[][] result = new byte[cubes.length][];
+    for (int i = 0; i < cubes.length; i++) {
+      result[i] = solve(cubes[i]);
+    }
+    return result;
+  }
+
+  public byte[] solve(int state) {
+    int distance = distances.get(state);
+    if (distance < 0) {
+      throw new IllegalStateException("No distance is stored for corner state " + state);
+    }
+
+    byte[] moves = new byte[distance];
+    int permutation = MoveTables.getCornerPermutation(state);
+    int orientation = MoveTables.getCornerOrientation(state);
+    for (int i = 0; i < moves.length; i++) {
+      int next = -1;
+      for (byte move = 0; move < MoveTables.MOVES && next < 0; move++) {
+        int p = MoveTables.moveCornerPermutation(permutation, move);
+        int o = MoveTables.moveCornerOrientation(permutation, orientation, move);
+        if (distances.get(MoveTables.getCornerState(p, o)) == distance - 1) {
+          next = move;
+          permutation = p;
+          orientation = o;
+        }
+      }
+      if (next < 0) {
+        throw new IllegalStateException("No neighbor of corner state " + MoveTables.getCornerState(permutation, orientation)
+                + " is at distance " + (distance - 1));
+      }
+      moves[i] = (byte) next;
+      distance--;
+    }
+    return moves;
+  }
+}
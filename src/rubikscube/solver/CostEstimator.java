@@ -0,0 +1,125 @@
+package rubikscube.solver;
+
+import java.util.List;
+import rubikscube.MoveTables;
+import rubikscube.RubiksCube;
+
+public class CostEstimator {
+
+  private static final long DEFAULT_PROBE_NODES = 20000;
+  private static final double[] default_coefficients = {-8.26, 0.02, 1.16};
+  private final OptimalSolver solver;
+  private final double[] coefficients = default_coefficients.clone();
+  private long probeNodes = DEFAULT_PROBE_NODES;
+
+  public CostEstimator(OptimalSolver solver) {
+    this.solver = solver;
+  }
+
+  public long getProbeNodes() {
+    return probeNodes;
+  }
+
+  public void setProbeNodes(long probeNodes) {
+    this.probeNodes = probeNodes;
+  }
+
+  public double estimateNodes(RubiksCube cube) {
+    return estimateNodes(cube, probe(cube));
+  }
+
+  public double estimateNodes(RubiksCube cube, SolveResult probe) {
+    if (probe != null && probe.getStatus() == SolveStatus.SOLVED) {
+      return probe.getNodesExpanded();
+    }
+    return estimate(getFeatures(cube, probe));
+  }
+
+  private double estimate(double[] features) {
+    double log = 0;
+    for (int i = 0; i < coefficients.length; i++) {
+      log += coefficients[i] * features[i];
+    }
+    return Math.pow(10, log);
+  }
+
+  public double[] getCoefficients() {
+    return coefficients.clone();
+  }
+
+  public void calibrate(List<RubiksCube> samples, SolveLimits limits) {
+    int k = coefficients.length;
+    double[][] normal = new double[k][k + 1];
+    for (RubiksCube cube : samples) {
+      SolveResult probe = probe(cube);
+      if (probe != null && probe.getStatus() == SolveStatus.SOLVED) {
+        continue;
+      }
+      double[] features = getFeatures(cube, probe);
+      SolveResult result = solver.solve(cube, limits);
+      if (result.getStatus() != SolveStatus.SOLVED) {
+        continue;
+      }
+      double target = Math.log10(result.getNodesExpanded() + 1);
+      for (int i = 0; i < k; i++) {
+        for (int j = 0; j < k; j++) {
+          normal[i][j] += features[i] * features[j];
+        }
+        normal[i][k] += features[i] * target;
+      }
+    }
+
+    double[] fitted = solve(normal);
+    if (fitted != null) {
+      System.arraycopy(fitted, 0, coefficients, 0, k);
+    }
+  }
+
+  public SolveResult probe(RubiksCube cube) {
+    return probeNodes > 0 ? solver.solve(cube, new SolveLimits(0, probeNodes)) : null;
+  }
+
+  private double[] getFeatures(RubiksCube cube, SolveResult probe) {
+    byte[] cubies = new byte[MoveTables.CUBIES];
+    int[] coordinates = new int[MoveTables.COORDINATES];
+    cube.getCubies(cubies);
+    MoveTables.getCoordinates(cubies, coordinates);
+
+    int heuristic = solver.getHeuristic(coordinates, cubies);
+    return new double[] {1, heuristic, probe != null ? probe.getLowerBound() : heuristic};
+  }
+
+  private static double[] solve(double[][] system) {
+    int k = system.length;
+    for (int column = 0; column < k; column++) {
+      int pivot = column;
+      for (int row = column + 1; row < k; row++) {
+        if (Math.abs(system[row][column]) > Math.abs(system[pivot][column])) {
+          pivot = row;
+        }
+      }
+      if (Math.abs(system[pivot][column]) < 1e-9) {
+        return null;
+      }
+      double[] swap = system[column];
+      system[column] = system[pivot];
+      system[pivot] = swap;
+
+      for (int row = 0; row < k; row++) {
+        if (row == column) {
+          continue;
+        }
+        double factor = system[row][column] / system[column][column];
+        for (int j = column; j <= k; j++) {
+          system[row][j] -= factor * system[column][j];
+        }
+      }
+    }
+
+    double[] result = new double[k];
+    for (int i = 0; i < k; i++) {
+      result[i] = system[i][k] / system[i][i];
+    }
+    return result;
+  }
+}
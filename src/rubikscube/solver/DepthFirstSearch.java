@@ -0,0 +1,324 @@
+package rubikscube.solver;
+
+import java.util.Arrays;
+import java.util.List;
+import rubikscube.MoveTables;
+import rubikscube.RubiksCube;
+import rubikscube.heuristic.DualHeuristic;
+import rubikscube.heuristic.HeuristicProvider;
+import rubikscube.heuristic.PerimeterDatabase;
+
+class DepthFirstSearch {
+
+  static final int MAX_DEPTH = 20;
+  private static final int FOUND = -1;
+  private static final int STOPPED = -2;
+  private static final int check_interval = 1023;
+  private static final byte[] no_moves = new byte[0];
+  private final OptimalSolver solver;
+  private final byte[] moves = new byte[MAX_DEPTH];
+  private final byte[] partial = new byte[MAX_DEPTH];
+  private final int[][] coordinates = new int[MAX_DEPTH + 1][MoveTables.COORDINATES];
+  private final byte[][] cubies = new byte[MAX_DEPTH + 1][MoveTables.CUBIES];
+  private final int[] heuristics = new int[MAX_DEPTH + 1];
+  private final int[] children = new int[MAX_DEPTH];
+  private final byte[][] childMoves = new byte[MAX_DEPTH][MoveTables.MOVES];
+  private final int[][][] childCoordinates = new int[MAX_DEPTH][MoveTables.MOVES][MoveTables.COORDINATES];
+  private final byte[][][] childCubies = new byte[MAX_DEPTH][MoveTables.MOVES][MoveTables.CUBIES];
+  private final int[][] childHeuristics = new int[MAX_DEPTH][MoveTables.MOVES];
+  private final int[][] childPatternHeuristics = new int[MAX_DEPTH][MoveTables.MOVES];
+  private final byte[][] order = new byte[MAX_DEPTH][MoveTables.MOVES];
+  private final int[] history = new int[MAX_DEPTH * MoveTables.MOVES];
+  private final byte[] suffix = new byte[MoveTables.CUBIES];
+  private final byte[] next = new byte[MoveTables.CUBIES];
+  private final SearchStatistics statistics = new SearchStatistics();
+  private List<HeuristicProvider> providers;
+  private DualHeuristic dualHeuristic;
+  private SolveLimits limits;
+  private SolveStatus status;
+  private boolean dual;
+  private PerimeterDatabase perimeter;
+  private boolean tracking;
+  private boolean ordering;
+  private int orderingBound;
+  private int bound;
+  private int length;
+  private int partialLength;
+  private int partialHeuristic;
+
+  DepthFirstSearch(OptimalSolver solver) {
+    this.solver = solver;
+  }
+
+  public SolveResult solve(RubiksCube root, SolveLimits limits) {
+    prepare(root, no_moves, limits);
+    bound = heuristics[0];
+
+    while (bound <= MAX_DEPTH) {
+      statistics.iteration();
+      int next = search(0);
+      if (next == FOUND) {
+        status = SolveStatus.SOLVED;
+        break;
+      }
+      if (next == STOPPED) {
+        break;
+      }
+      bound = next;
+    }
+    statistics.stop();
+    statistics.solved(length);
+
+    return getResult(Math.min(bound, MAX_DEPTH + 1));
+  }
+
+  public SolveResult solve(RubiksCube root, byte[] prefix, int bound, SolveLimits limits) {
+    prepare(root, prefix, limits);
+    this.bound = bound;
+
+    statistics.iteration();
+    int next = search(prefix.length);
+    if (next == FOUND) {
+      status = SolveStatus.SOLVED;
+    }
+    statistics.stop();
+    statistics.solved(length);
+
+    return getResult(status == SolveStatus.NO_SOLUTION ? next : bound);
+  }
+
+  private void prepare(RubiksCube root, byte[] prefix, SolveLimits limits) {
+    if (solver.getProviders() != providers) {
+      providers = solver.getProviders();
+      statistics.sources(solver.getSources());
+      dualHeuristic = null;
+    }
+    statistics.reset();
+    statistics.start();
+    this.limits = limits;
+    dual = solver.isDualLookups();
+    if (dual && dualHeuristic == null) {
+      dualHeuristic = new DualHeuristic(providers);
+    }
+    perimeter = solver.getPerimeterDatabase();
+    tracking = dual || perimeter != null || solver.needsCubies();
+    ordering = solver.isSuccessorOrdering();
+    orderingBound = solver.getOrderingBound();
+    for (int i = 0; i < history.length; i++) {
+      history[i] = 0;
+    }
+
+    int ply = prefix.length;
+    root.getCubies(cubies[0]);
+    for (int i = 0; i < ply; i++) {
+      moves[i] = prefix[i];
+      MoveTables.moveCubies(cubies[i], prefix[i], cubies[i + 1]);
+    }
+    MoveTables.getCoordinates(cubies[ply], coordinates[ply]);
+    heuristics[ply] = evaluate(solver.getHeuristic(coordinates[ply], cubies[ply]), cubies[ply]);
+    length = -1;
+    partialLength = ply;
+    partialHeuristic = heuristics[ply];
+    System.arraycopy(prefix, 0, partial, 0, ply);
+    status = SolveStatus.NO_SOLUTION;
+  }
+
+  private SolveResult getResult(int lowerBound) {
+    byte[] result = status == SolveStatus.SOLVED ? Arrays.copyOf(moves, length) : Arrays.copyOf(partial, partialLength);
+    return new SolveResult(status, result, status == SolveStatus.SOLVED ? length : lowerBound,
+            statistics.getNodesExpanded(), statistics.getElapsedNanos());
+  }
+
+  public SearchStatistics getStatistics() {
+    return statistics;
+  }
+
+  private int search(int ply) {
+    int heuristic = heuristics[ply];
+    if (heuristic > bound - ply) {
+      return ply + heuristic;
+    }
+    if (MoveTables.isSolved(coordinates[ply])) {
+      length = ply;
+      return FOUND;
+    }
+    if (perimeter != null && bound - ply <= perimeter.getDepth()) {
+      statistics.perimeterLookup();
+      int distance = perimeter.get(cubies[ply]);
+      if (distance >= 0 && distance <= bound - ply) {
+        splice(ply, distance);
+        return FOUND;
+      }
+      statistics.perimeterCutoff();
+      heuristics[ply] = Math.max(heuristic, distance >= 0 ? distance : perimeter.getDepth() + 1);
+      return ply + heuristics[ply];
+    }
+    if (ply == MAX_DEPTH) {
+      return Integer.MAX_VALUE;
+    }
+
+    statistics.expanded();
+    if (isStopped()) {
+      return STOPPED;
+    }
+    if (heuristic < partialHeuristic) {
+      partialHeuristic = heuristic;
+      partialLength = ply;
+      System.arraycopy(moves, 0, partial, 0, ply);
+    }
+
+    heuristic = generate(ply, heuristic);
+    if (heuristic > bound - ply) {
+      statistics.pathmaxCutoff();
+      heuristics[ply] = heuristic;
+      return ply + heuristic;
+    }
+
+    boolean ordered = ordering && bound >= orderingBound;
+    if (ordered) {
+      sort(ply);
+    }
+
+    int min = Integer.MAX_VALUE;
+    int best = -1;
+    for (int n = 0; n < children[ply]; n++) {
+      int k = ordered ? order[ply][n] : n;
+      int h = Math.max(childHeuristics[ply][k], heuristic - 1);
+      if (h > bound - ply - 1) {
+        if (dual && childPatternHeuristics[ply][k] <= bound - ply - 1) {
+          statistics.dualCutoff();
+        }
+        min = Math.min(min, ply + 1 + h);
+        continue;
+      }
+
+      moves[ply] = childMoves[ply][k];
+      System.arraycopy(childCoordinates[ply][k], 0, coordinates[ply + 1], 0, MoveTables.COORDINATES);
+      if (tracking) {
+        System.arraycopy(childCubies[ply][k], 0, cubies[ply + 1], 0, MoveTables.CUBIES);
+      }
+      heuristics[ply + 1] = h;
+
+      int result = search(ply + 1);
+      if (result == FOUND) {
+        history[ply * MoveTables.MOVES + moves[ply]]++;
+        return FOUND;
+      }
+      if (result == STOPPED) {
+        return STOPPED;
+      }
+      if (result < min) {
+        min = result;
+        best = moves[ply];
+      }
+
+      if (heuristics[ply + 1] - 1 > heuristic) {
+        heuristic = heuristics[ply + 1] - 1;
+        heuristics[ply] = heuristic;
+        if (heuristic > bound - ply) {
+          statistics.pathmaxCutoff();
+          return Math.min(min, ply + heuristic);
+        }
+      }
+    }
+
+    if (best >= 0) {
+      history[ply * MoveTables.MOVES + best]++;
+    }
+    return min;
+  }
+
+  private boolean isStopped() {
+    long nodes = statistics.getNodesExpanded();
+    if (nodes > limits.getMaxNodes()) {
+      status = SolveStatus.NODE_BUDGET;
+    } else if ((nodes & check_interval) != 0) {
+      return false;
+    } else if (limits.isCancelled()) {
+      status = SolveStatus.CANCELLED;
+    } else if (limits.isExpired()) {
+      status = SolveStatus.DEADLINE;
+    } else {
+      return false;
+    }
+    return true;
+  }
+
+  private void sort(int ply) {
+    byte[] o = order[ply];
+    int[] h = childHeuristics[ply];
+    byte[] m = childMoves[ply];
+    int offset = ply * MoveTables.MOVES;
+    for (int n = 0; n < children[ply]; n++) {
+      int k = n;
+      int j = n - 1;
+      while (j >= 0 && (h[o[j]] > h[k] || h[o[j]] == h[k] && history[offset + m[o[j]]] < history[offset + m[k]])) {
+        o[j + 1] = o[j];
+        j--;
+      }
+      o[j + 1] = (byte) k;
+    }
+  }
+
+  private int generate(int ply, int heuristic) {
+    int count = 0;
+    int previous = ply > 0 ? moves[ply - 1] / 3 : -1;
+    for (byte face : RubiksCube.getFaces()) {
+      if (face == previous || face == (previous ^ 1) && face < previous) {
+        continue;
+      }
+
+      for (int i = 0; i < 3; i++) {
+        byte move = OptimalSolver.encode(face, (byte) (i + 1));
+        childMoves[ply][count] = move;
+        MoveTables.move(coordinates[ply], move, childCoordinates[ply][count]);
+        if (tracking) {
+          MoveTables.moveCubies(cubies[ply], move, childCubies[ply][count]);
+        }
+        count++;
+      }
+    }
+    children[ply] = count;
+
+    solver.getHeuristics(childCoordinates[ply], childCubies[ply], count, childPatternHeuristics[ply], bound - ply - 1, statistics);
+    for (int n = 0; n < count; n++) {
+      int h = childPatternHeuristics[ply][n];
+      if (h <= bound - ply - 1) {
+        h = evaluate(h, childCubies[ply][n]);
+      }
+      childHeuristics[ply][n] = h;
+      statistics.generated();
+
+      if (h - 1 > heuristic) {
+        heuristic = h - 1;
+      }
+    }
+    return heuristic;
+  }
+
+  private void splice(int ply, int distance) {
+    System.arraycopy(cubies[ply], 0, suffix, 0, MoveTables.CUBIES);
+    for (int d = distance; d > 0; d--) {
+      for (byte move = 0; move < MoveTables.MOVES; move++) {
+        MoveTables.moveCubies(suffix, move, next);
+        if (perimeter.get(next) == d - 1) {
+          moves[ply++] = move;
+          System.arraycopy(next, 0, suffix, 0, MoveTables.CUBIES);
+          break;
+        }
+      }
+    }
+    length = ply;
+  }
+
+  private int evaluate(int heuristic, byte[] cubies) {
+    if (dual) {
+      int h = dualHeuristic.getHeuristic(null, cubies);
+      if (h > heuristic) {
+        statistics.dualImproved();
+        heuristic = h;
+      }
+    }
+    return heuristic;
+  }
+}
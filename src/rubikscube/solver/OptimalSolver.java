@@ -1,21 +1,66 @@
 package rubikscube.solver;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.LinkedList;
-import java.util.PriorityQueue;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Scanner;
+import rubikscube.MoveTables;
 import rubikscube.RubiksCube;
+import rubikscube.heuristic.CornerEdgeOrientationDatabase;
+import rubikscube.heuristic.CornerEdgeOrientationHeuristic;
+import rubikscube.heuristic.EdgePatternDatabase;
+import rubikscube.heuristic.EdgePatternHeuristic;
+import rubikscube.heuristic.HeuristicProvider;
+import rubikscube.heuristic.OrientationHeuristic;
+import rubikscube.heuristic.PatternDatabase;
+import rubikscube.heuristic.PatternHeuristic;
+import rubikscube.heuristic.PatternLayout;
+import rubikscube.heuristic.PerimeterDatabase;
 
 public class OptimalSolver {
 
+  private static final boolean corner_edges = Boolean.getBoolean("rubikscube.corneredges");
   private static OptimalSolver instance;
-  private static RubiksCube cube;
+  private SearchMode searchMode = SearchMode.DEPTH_FIRST;
+  private int parallelism = Runtime.getRuntime().availableProcessors();
+  private boolean dualLookups;
+  private boolean successorOrdering;
+  private int orderingBound;
+  private PatternLayout patternLayout = PatternLayout.ORIENTATION_MAJOR;
+  private PerimeterDatabase perimeter;
+  private long memoryBudget;
+  private List<HeuristicProvider> providers = Collections.emptyList();
+  private HeuristicProvider[] active = new HeuristicProvider[0];
+  private boolean cubies;
+  private final ThreadLocal<DepthFirstSearch> searches = new ThreadLocal<DepthFirstSearch>() {
+    @Override
+    protected DepthFirstSearch initialValue() {
+      return new DepthFirstSearch(OptimalSolver.this);
+    }
+  };
+  private final ThreadLocal<ParallelBestFirstSearch> parallelSearches = new ThreadLocal<ParallelBestFirstSearch>() {
+    @Override
+    protected ParallelBestFirstSearch initialValue() {
+      return new ParallelBestFirstSearch(OptimalSolver.this);
+    }
+  };
+  private final ThreadLocal<BreadthFirstHeuristicSearch> breadthFirstSearches = new ThreadLocal<BreadthFirstHeuristicSearch>() {
+    @Override
+    protected BreadthFirstHeuristicSearch initialValue() {
+      return new BreadthFirstHeuristicSearch(OptimalSolver.this);
+    }
+  };
+  private final ThreadLocal<BestFirstSearch> bestFirstSearches = new ThreadLocal<BestFirstSearch>() {
+    @Override
+    protected BestFirstSearch initialValue() {
+      return new BestFirstSearch(OptimalSolver.this);
+    }
+  };
 
   public static void main(String[] args) throws FileNotFoundException {
     Scanner scanner = new Scanner(new File("cube.txt"));
@@ -27,15 +72,11 @@ public class OptimalSolver {
     OptimalSolver solver = OptimalSolver.getInstance();
     RubiksCube c = new RubiksCube(representation.toString());
     System.out.println(solver.solve(c));
+    System.out.println(solver.getStatistics());
   }
-  private static byte[][] heuristics = {
-    new byte[88179840],
-    new byte[42577920],
-    new byte[42577920]
-  };
 
   private OptimalSolver() {
-    populateHeuristicTables();
+    loadProviders(getDefaultBudget());
   }
 
   public static OptimalSolver getInstance() {
@@ -49,187 +90,260 @@ public class OptimalSolver {
     return instance;
   }
 
-  private static void populateHeuristicTables() {
-    for (int i = 0; i < heuristics.length; i++) {
-      try (BufferedReader in = new BufferedReader(new FileReader("heuristic" + (i + 1) + ".txt"))) {
-        for (int j = 0; j < heuristics[i].length; j++) {
-          heuristics[i][j] = Byte.parseByte(in.readLine());
-        }
+  private static long getDefaultBudget() {
+    long megabytes = Long.getLong("rubikscube.memory", -1);
+    return megabytes >= 0 ? megabytes << 20 : Runtime.getRuntime().maxMemory() / 4 * 3;
+  }
+
+  public void loadProviders(long budget) {
+    memoryBudget = budget;
+    List<HeuristicProvider> loaded = new ArrayList<>();
+    PatternDatabase[] databases = new PatternDatabase[3];
+    long used = 0;
+    for (int i = 0; i < 3; i++) {
+      String file = "heuristic" + (i + 1);
+      File binary = new File(file + ".bin");
+      long bytes = binary.exists() ? binary.length()
+              : i == PatternDatabase.CORNERS ? MoveTables.CORNER_STATES : MoveTables.EDGE_STATES;
+      if (used + bytes > budget) {
+        System.out.println("Skipping " + file + ": it does not fit the memory budget");
+        continue;
+      }
+      try {
+        PatternDatabase database = binary.exists() ? PatternDatabase.read(binary.getPath())
+                : PatternDatabase.readText(file + ".txt", i);
+        PatternHeuristic heuristic = new PatternHeuristic(database.convert(patternLayout).fillUnreached());
+        loaded.add(heuristic);
+        databases[i] = heuristic.getDatabase();
+        used += bytes;
       } catch (IOException e) {
         System.out.println("There is an error reading from the file.");
       }
     }
-  }
-
-  public String solve(RubiksCube c) {
-    cube = c;
-    int[] states = c.getStates();
-    Node node = new Node(states, new byte[0], 0, lookupHeuristic(states));
-    System.out.println(node);
-    System.out.println(cube);
-
-    int depth = node.getHeuristic();
-    while (!node.isSolved() && depth < 18) {
-      System.out.println("Evaluating with max depth of " + depth);
-      PriorityQueue<Node> frontier = new PriorityQueue<>();
-      frontier.add(node);
-      LinkedList<Node> explored = new LinkedList<>();
-      explored.add(node);
-      node = solve(frontier, explored, depth++);
 
+    if (databases[PatternDatabase.CORNERS] != null) {
+      loaded.add(OrientationHeuristic.corners(databases[PatternDatabase.CORNERS]));
+    }
+    if (databases[PatternDatabase.EDGES_1] != null && databases[PatternDatabase.EDGES_2] != null) {
+      loaded.add(OrientationHeuristic.edges(databases[PatternDatabase.EDGES_1], databases[PatternDatabase.EDGES_2]));
     }
 
-
-    String solution = "";
-    for (byte action : node.getActions()) {
-      byte[] actions = decode(action);
-      solution += RubiksCube.getColor(actions[0]) + "" + actions.length + " ";
+    File file = new File("corneredges.bin");
+    if (corner_edges && file.exists() && used + CornerEdgeOrientationDatabase.estimateMemoryBytes(file.length()) <= budget) {
+      try {
+        CornerEdgeOrientationDatabase database = CornerEdgeOrientationDatabase.read(file.getPath());
+        loaded.add(new CornerEdgeOrientationHeuristic(database));
+        used += database.getMemoryBytes();
+      } catch (IOException e) {
+        System.out.println("There is an error reading from the file.");
+      }
     }
-    return solution.equals("") ? "Already solved" : solution;
-  }
 
-  private Node solve(PriorityQueue<Node> frontier, LinkedList<Node> explored, int depth) {
-    Node node = frontier.remove();
-    while (!node.isSolved()) {
-      Collection<Node> children = expand(node);
-      for (Node child : children) {
-        if (!explored.contains(child) || child.getCost() < depth) {
-          frontier.add(child);
-          explored.add(child);
+    String[] names = new File(".").list();
+    if (names != null) {
+      Arrays.sort(names);
+      for (String name : names) {
+        if (!name.startsWith("edgepattern-") || !name.endsWith(".bin")) {
+          continue;
+        }
+        if (used + new File(name).length() > budget) {
+          System.out.println("Skipping " + name + ": it does not fit the memory budget");
+          continue;
+        }
+        try {
+          EdgePatternDatabase database = EdgePatternDatabase.read(name);
+          loaded.add(new EdgePatternHeuristic(database));
+          used += database.getMemoryBytes();
+        } catch (IOException e) {
+          System.out.println("There is an error reading from the file.");
         }
       }
+    }
 
-      if (frontier.isEmpty()) {
-        return node;
-      } else {
-        node = frontier.remove();
+    perimeter = null;
+    file = new File("perimeter.bin");
+    if (file.exists() && used + PerimeterDatabase.estimateMemoryBytes(file.length()) <= budget) {
+      try {
+        perimeter = PerimeterDatabase.read(file.getPath());
+      } catch (IOException e) {
+        System.out.println("There is an error reading from the file.");
       }
     }
+    setProviders(loaded);
+  }
 
-    return node;
+  public long getMemoryBudget() {
+    return memoryBudget;
   }
 
-  private Collection<Node> expand(Node node) {
-    Collection<Node> nodes = new LinkedList<>();
+  public List<HeuristicProvider> getProviders() {
+    return providers;
+  }
 
-    RubiksCube c = new RubiksCube(cube);
-    for (byte action : node.getActions()) {
-      for (byte color : decode(action)) {
-        c.rotateFace(color);
+  public void setProviders(List<HeuristicProvider> providers) {
+    this.providers = Collections.unmodifiableList(new ArrayList<>(providers));
+    HeuristicProvider[] active = providers.toArray(new HeuristicProvider[0]);
+    Arrays.sort(active, new Comparator<HeuristicProvider>() {
+      @Override
+      public int compare(HeuristicProvider a, HeuristicProvider b) {
+        return Long.compare(a.getMemoryBytes(), b.getMemoryBytes());
       }
+    });
+    boolean cubies = false;
+    for (HeuristicProvider provider : active) {
+      cubies |= provider.needsCubies();
     }
+    this.cubies = cubies;
+    this.active = active;
+  }
 
-    for (byte color : RubiksCube.getFaces()) {
-      for (int i = 0; i < 3; i++) {
-        c.rotateFace(color);
+  boolean needsCubies() {
+    return cubies;
+  }
 
-        int[] states = c.getStates();
-        byte[] actions = new byte[node.getActions().length + 1];
-        System.arraycopy(node.getActions(), 0, actions, 0, node.getActions().length);
-        actions[actions.length - 1] = encode(color, (byte) (i + 1));
-        Node n = new Node(states, actions, node.getCost() + 1, lookupHeuristic(states));
-        nodes.add(n);
-      }
-      c.rotateFace(color);
-    }
+  public SearchMode getSearchMode() {
+    return searchMode;
+  }
 
-    return nodes;
+  public void setSearchMode(SearchMode searchMode) {
+    this.searchMode = searchMode;
   }
 
-  private static int lookupHeuristic(int[] states) {
-    int heuristic = -1;
-    for (int i = 0; i < heuristics.length; i++) {
-      heuristic = Math.max(heuristics[i][states[i]], heuristic);
-    }
-    if (heuristic < 0) {
-      heuristic = Integer.MAX_VALUE;
-    }
-    return heuristic;
+  public int getParallelism() {
+    return parallelism;
   }
 
-  private static byte[] decode(byte action) {
-    byte color = (byte) (action / 3);
-    int rotations = (action % 3) + 1;
+  public void setParallelism(int parallelism) {
+    this.parallelism = Math.max(1, parallelism);
+  }
 
-    byte[] actions = new byte[rotations];
-    for (int i = 0; i < actions.length; i++) {
-      actions[i] = (byte) color;
-    }
+  public boolean isDualLookups() {
+    return dualLookups;
+  }
 
-    return actions;
+  public void setDualLookups(boolean dualLookups) {
+    this.dualLookups = dualLookups;
   }
 
-  private static byte encode(byte color, byte rotations) {
-    return (byte) ((color * 3) + (rotations - 1));
+  public boolean isSuccessorOrdering() {
+    return successorOrdering;
   }
 
-  private class Node implements Comparable<Node> {
+  public void setSuccessorOrdering(boolean successorOrdering) {
+    this.successorOrdering = successorOrdering;
+  }
 
-    private int[] states;
-    private byte[] actions;
-    private int cost;
-    private int heuristic;
+  public int getOrderingBound() {
+    return orderingBound;
+  }
 
-    public Node(int[] states, byte[] actions, int cost, int heuristic) {
-      this.states = Arrays.copyOf(states, states.length);
-      this.actions = Arrays.copyOf(actions, actions.length);
-      this.cost = cost;
-      this.heuristic = heuristic;
-    }
+  public void setOrderingBound(int orderingBound) {
+    this.orderingBound = orderingBound;
+  }
 
-    public int[] getStates() {
-      return states;
-    }
+  public PatternLayout getPatternLayout() {
+    return patternLayout;
+  }
 
-    public byte[] getActions() {
-      return actions;
+  public void setPatternLayout(PatternLayout patternLayout) {
+    List<HeuristicProvider> converted = new ArrayList<>();
+    for (HeuristicProvider provider : providers) {
+      converted.add(provider instanceof PatternHeuristic ? ((PatternHeuristic) provider).convert(patternLayout) : provider);
     }
+    this.patternLayout = patternLayout;
+    setProviders(converted);
+  }
 
-    public int getCost() {
-      return cost;
+  public SearchStatistics getStatistics() {
+    if (searchMode == SearchMode.BEST_FIRST) {
+      return bestFirstSearches.get().getStatistics();
+    } else if (searchMode == SearchMode.PARALLEL_BEST_FIRST) {
+      return parallelSearches.get().getStatistics();
+    } else if (searchMode == SearchMode.BREADTH_FIRST_HEURISTIC) {
+      return breadthFirstSearches.get().getStatistics();
     }
+    return searches.get().getStatistics();
+  }
 
-    public int getHeuristic() {
-      return heuristic;
-    }
+  public PerimeterDatabase getPerimeterDatabase() {
+    return perimeter;
+  }
 
-    public boolean isSolved() {
-      for (int state : states) {
-        if (state > 0) {
-          return false;
-        }
-      }
-      return true;
-    }
+  public void setPerimeterDatabase(PerimeterDatabase perimeter) {
+    this.perimeter = perimeter;
+  }
 
-    @Override
-    public int compareTo(Node other) {
-      return (cost + heuristic) - (other.getCost() + other.getHeuristic());
-    }
+  public String solve(RubiksCube c) {
+    return solve(c, SolveLimits.unlimited()).getSolution();
+  }
 
-    @Override
-    public boolean equals(Object other) {
-      return other instanceof Node && equals((Node) other);
-    }
+  public String solve(RubiksCube from, RubiksCube to) {
+    return solve(from, to, SolveLimits.unlimited()).getSolution();
+  }
 
-    public boolean equals(Node other) {
-      return Arrays.equals(states, other.states);
+  public SolveResult solve(RubiksCube from, RubiksCube to, SolveLimits limits) {
+    return solve(from.relativeTo(to), limits);
+  }
+
+  public SolveResult solve(RubiksCube c, SolveLimits limits) {
+    if (searchMode == SearchMode.BEST_FIRST) {
+      return bestFirstSearches.get().solve(c, limits);
+    } else if (searchMode == SearchMode.PARALLEL_BEST_FIRST) {
+      return parallelSearches.get().solve(c, limits, parallelism);
+    } else if (searchMode == SearchMode.BREADTH_FIRST_HEURISTIC) {
+      return breadthFirstSearches.get().solve(c, limits);
     }
+    return searches.get().solve(c, limits);
+  }
 
-    @Override
-    public String toString() {
-      return "Action: " + arrayToString(actions) + " Cost: " + cost + " Heuristic: " + heuristic + " State: " + Arrays.toString(states);
+  SolveResult solve(RubiksCube c, byte[] prefix, int bound, SolveLimits limits) {
+    return searches.get().solve(c, prefix, bound, limits);
+  }
+
+  int getHeuristic(int[] coordinates, byte[] cubies) {
+    int heuristic = 0;
+    for (HeuristicProvider provider : active) {
+      heuristic = Math.max(provider.getHeuristic(coordinates, cubies), heuristic);
     }
+    return heuristic;
+  }
 
-    private String arrayToString(byte[] array) {
-      String s = "";
+  void getHeuristics(int[][] coordinates, byte[][] cubies, int count, int[] result) {
+    for (int n = 0; n < count; n++) {
+      result[n] = 0;
+    }
+    for (HeuristicProvider provider : active) {
+      provider.getHeuristics(coordinates, cubies, count, result, Integer.MAX_VALUE);
+    }
+  }
 
-      for (byte b : array) {
-        byte[] actions = decode(b);
-        s += RubiksCube.getColor(actions[0]) + "" + actions.length;
+  void getHeuristics(int[][] coordinates, byte[][] cubies, int count, int[] result, int threshold, SearchStatistics statistics) {
+    int pending = count;
+    for (int n = 0; n < count; n++) {
+      result[n] = 0;
+    }
+    for (int i = 0; i < active.length && pending > 0; i++) {
+      active[i].getHeuristics(coordinates, cubies, count, result, threshold);
+      int remaining = 0;
+      for (int n = 0; n < count; n++) {
+        if (result[n] <= threshold) {
+          remaining++;
+        }
       }
+      statistics.decisive(i, pending - remaining);
+      pending = remaining;
+    }
+  }
 
-      return s;
+  String[] getSources() {
+    String[] sources = new String[active.length];
+    for (int i = 0; i < active.length; i++) {
+      sources[i] = active[i].toString();
     }
+    return sources;
+  }
+
+  static byte encode(byte color, byte rotations) {
+    return (byte) ((color * 3) + (rotations - 1));
   }
 }
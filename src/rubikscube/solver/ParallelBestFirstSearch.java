@@ -0,0 +1,423 @@
+package rubikscube.solver;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import rubikscube.MoveTables;
+import rubikscube.RubiksCube;
+
+class ParallelBestFirstSearch {
+
+  private static final int levels = DepthFirstSearch.MAX_DEPTH + 1;
+  private static final int entry_size = 6;
+  private static final int message_size = 7;
+  private static final int batch_entries = 64;
+  private static final int initial_capacity = 1 << 10;
+  private static final int check_interval = 1023;
+  private static final long idle_nanos = 50000;
+  private final OptimalSolver solver;
+  private final SearchStatistics statistics = new SearchStatistics();
+  private final AtomicInteger incumbent = new AtomicInteger();
+  private final AtomicInteger idle = new AtomicInteger();
+  private final AtomicLong outstanding = new AtomicLong();
+  private final AtomicLong expanded = new AtomicLong();
+  private Worker[] workers;
+  private SolveLimits limits;
+  private volatile SolveStatus stopped;
+  private volatile boolean done;
+  private int solutionWorker;
+  private int solutionIndex;
+
+  ParallelBestFirstSearch(OptimalSolver solver) {
+    this.solver = solver;
+  }
+
+  public SolveResult solve(RubiksCube c, SolveLimits limits, int threads) {
+    statistics.reset();
+    statistics.start();
+    this.limits = limits;
+    incumbent.set(Integer.MAX_VALUE);
+    idle.set(0);
+    outstanding.set(0);
+    expanded.set(0);
+    stopped = null;
+    done = false;
+    solutionWorker = -1;
+
+    workers = new Worker[threads];
+    for (int i = 0; i < threads; i++) {
+      workers[i] = new Worker(i);
+    }
+
+    byte[] cubies = new byte[MoveTables.CUBIES];
+    int[] coordinates = new int[MoveTables.COORDINATES];
+    c.getCubies(cubies);
+    MoveTables.getCoordinates(cubies, coordinates);
+    int corner = BestFirstSearch.getCornerIndex(coordinates);
+    int edge1 = BestFirstSearch.getEdgeIndex(coordinates, 0);
+    int edge2 = BestFirstSearch.getEdgeIndex(coordinates, 1);
+    outstanding.incrementAndGet();
+    workers[getOwner(corner, edge1, edge2)].inbox.add(new int[] {corner, edge1, edge2, -1, -1, 0, 0});
+
+    Thread[] running = new Thread[threads];
+    for (int i = 0; i < threads; i++) {
+      running[i] = new Thread(workers[i]);
+      running[i].start();
+    }
+    for (Thread thread : running) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        limits.cancel();
+        done = true;
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    long generated = 0;
+    int lowerBound = levels;
+    int best = -1;
+    for (int i = 0; i < threads; i++) {
+      generated += workers[i].generated;
+      lowerBound = Math.min(lowerBound, workers[i].getMinimum());
+      if (workers[i].best >= 0 && (best < 0 || workers[i].bestHeuristic < workers[best].bestHeuristic)) {
+        best = i;
+      }
+    }
+    statistics.add(expanded.get(), generated);
+    statistics.stop();
+
+    SolveStatus status;
+    byte[] moves;
+    if (stopped != null) {
+      status = stopped;
+      moves = best >= 0 ? trace(best, workers[best].best) : new byte[0];
+    } else if (solutionWorker >= 0) {
+      status = SolveStatus.SOLVED;
+      moves = trace(solutionWorker, solutionIndex);
+      lowerBound = moves.length;
+    } else {
+      status = SolveStatus.NO_SOLUTION;
+      moves = new byte[0];
+    }
+    statistics.solved(status == SolveStatus.SOLVED ? moves.length : -1);
+    workers = null;
+    return new SolveResult(status, moves, status == SolveStatus.SOLVED ? moves.length : Math.min(lowerBound, incumbent.get()),
+            statistics.getNodesExpanded(), statistics.getElapsedNanos());
+  }
+
+  public SearchStatistics getStatistics() {
+    return statistics;
+  }
+
+  private int getOwner(int corner, int edge1, int edge2) {
+    return (int) (((BestFirstSearch.hash(corner, edge1, edge2) >>> 1) * (long) workers.length) >>> 31);
+  }
+
+  private synchronized void offerSolution(int worker, int index, int cost) {
+    if (cost < incumbent.get()) {
+      incumbent.set(cost);
+      solutionWorker = worker;
+      solutionIndex = index;
+    }
+  }
+
+  private byte[] trace(int worker, int index) {
+    byte[] path = new byte[levels];
+    int length = 0;
+    while (workers[worker].closed[index * entry_size + 4] >= 0) {
+      int k = index * entry_size;
+      int parent = workers[worker].closed[k + 3];
+      path[length++] = (byte) (parent % MoveTables.MOVES);
+      worker = workers[worker].closed[k + 4];
+      index = parent / MoveTables.MOVES;
+    }
+
+    byte[] moves = new byte[length];
+    for (int i = 0; i < length; i++) {
+      moves[i] = path[length - 1 - i];
+    }
+    return moves;
+  }
+
+  private class Worker implements Runnable {
+
+    private final int id;
+    private final Queue<int[]> inbox = new ConcurrentLinkedQueue<>();
+    private final int[][] outgoing;
+    private final int[] outgoingSizes;
+    private final int[][] buckets = new int[levels * levels][];
+    private final int[] sizes = new int[levels * levels];
+    private final int[] coordinates = new int[MoveTables.COORDINATES];
+    private final int[] parent = new int[MoveTables.COORDINATES];
+    private final int[] child = new int[MoveTables.COORDINATES];
+    private final byte[] cubies = new byte[MoveTables.CUBIES];
+    private final byte[] slots = new byte[MoveTables.CUBIES];
+    private final boolean tracking = solver.needsCubies();
+    private int[] closed = new int[initial_capacity * entry_size];
+    private int[] table = new int[initial_capacity * 2];
+    private int size;
+    private int minimum = levels;
+    private int best = -1;
+    private int bestHeuristic = Integer.MAX_VALUE;
+    private long count;
+    private long generated;
+    private int received;
+    private boolean waiting;
+
+    private Worker(int id) {
+      this.id = id;
+      outgoing = new int[workers.length][];
+      outgoingSizes = new int[workers.length];
+    }
+
+    @Override
+    public void run() {
+      while (!done) {
+        int[] batch = inbox.poll();
+        if (batch != null) {
+          setWaiting(false);
+          for (int offset = 0; offset < batch.length; offset += message_size) {
+            receive(batch, offset);
+          }
+          received++;
+          continue;
+        }
+
+        int b = pop();
+        if (b >= 0) {
+          setWaiting(false);
+          expand(buckets[b][sizes[b]], b / levels, b % levels);
+          continue;
+        }
+
+        flush();
+        setWaiting(true);
+        if (received > 0) {
+          outstanding.addAndGet(-received);
+          received = 0;
+        }
+        if (idle.get() == workers.length && outstanding.get() == 0) {
+          done = true;
+        } else {
+          LockSupport.parkNanos(idle_nanos);
+        }
+      }
+      expanded.addAndGet(count % (check_interval + 1));
+    }
+
+    private void setWaiting(boolean waiting) {
+      if (waiting != this.waiting) {
+        this.waiting = waiting;
+        if (waiting) {
+          idle.incrementAndGet();
+        } else {
+          idle.decrementAndGet();
+        }
+      }
+    }
+
+    private int getMinimum() {
+      for (int f = 0; f < levels; f++) {
+        for (int depth = 0; depth < levels; depth++) {
+          if (sizes[f * levels + depth] > 0) {
+            return f;
+          }
+        }
+      }
+      return levels;
+    }
+
+    private void receive(int[] message, int offset) {
+      int corner = message[offset];
+      int edge1 = message[offset + 1];
+      int edge2 = message[offset + 2];
+      int depth = message[offset + 5];
+      int index = find(corner, edge1, edge2);
+      if (index >= 0) {
+        if (closed[index * entry_size + 5] <= depth) {
+          return;
+        }
+        int k = index * entry_size;
+        closed[k + 3] = message[offset + 3];
+        closed[k + 4] = message[offset + 4];
+        closed[k + 5] = depth;
+      } else {
+        index = add(corner, edge1, edge2, message[offset + 3], message[offset + 4], depth);
+      }
+
+      BestFirstSearch.unpack(corner, edge1, edge2, coordinates);
+      if (MoveTables.isSolved(coordinates)) {
+        offerSolution(id, index, depth);
+        return;
+      }
+      if (tracking) {
+        MoveTables.getCubies(coordinates, cubies, slots);
+      }
+      int heuristic = solver.getHeuristic(coordinates, cubies);
+      int cost = Math.max(depth + heuristic, message[offset + 6]);
+      if (cost < levels && cost < incumbent.get()) {
+        push(cost, depth, index);
+        if (heuristic < bestHeuristic) {
+          bestHeuristic = heuristic;
+          best = index;
+        }
+      }
+    }
+
+    private void expand(int index, int cost, int depth) {
+      int k = index * entry_size;
+      if (closed[k + 5] != depth || cost >= incumbent.get()) {
+        return;
+      }
+      if (++count % (check_interval + 1) == 0) {
+        check(check_interval + 1);
+      }
+      if (depth == levels - 1) {
+        return;
+      }
+
+      BestFirstSearch.unpack(closed[k], closed[k + 1], closed[k + 2], parent);
+      int previous = closed[k + 4] >= 0 ? closed[k + 3] % MoveTables.MOVES / 3 : -1;
+      for (byte face : RubiksCube.getFaces()) {
+        if (face == previous || face == (previous ^ 1) && face < previous) {
+          continue;
+        }
+
+        for (int i = 0; i < 3; i++) {
+          byte move = OptimalSolver.encode(face, (byte) (i + 1));
+          MoveTables.move(parent, move, child);
+          generated++;
+          send(BestFirstSearch.getCornerIndex(child), BestFirstSearch.getEdgeIndex(child, 0),
+                  BestFirstSearch.getEdgeIndex(child, 1), index * MoveTables.MOVES + move, depth + 1, cost);
+        }
+      }
+    }
+
+    private void check(long nodes) {
+      long total = expanded.addAndGet(nodes);
+      if (total > limits.getMaxNodes()) {
+        stopped = SolveStatus.NODE_BUDGET;
+      } else if (limits.isCancelled()) {
+        stopped = SolveStatus.CANCELLED;
+      } else if (limits.isExpired()) {
+        stopped = SolveStatus.DEADLINE;
+      } else {
+        return;
+      }
+      done = true;
+    }
+
+    private void send(int corner, int edge1, int edge2, int parent, int depth, int cost) {
+      int owner = getOwner(corner, edge1, edge2);
+      int[] batch = outgoing[owner];
+      if (batch == null) {
+        batch = outgoing[owner] = new int[batch_entries * message_size];
+      }
+      int offset = outgoingSizes[owner];
+      batch[offset] = corner;
+      batch[offset + 1] = edge1;
+      batch[offset + 2] = edge2;
+      batch[offset + 3] = parent;
+      batch[offset + 4] = id;
+      batch[offset + 5] = depth;
+      batch[offset + 6] = cost;
+      outgoingSizes[owner] = offset + message_size;
+
+      if (owner == id) {
+        receive(batch, offset);
+        outgoingSizes[owner] = offset;
+      } else if (outgoingSizes[owner] == batch.length) {
+        flush(owner);
+      }
+    }
+
+    private void flush() {
+      for (int owner = 0; owner < outgoing.length; owner++) {
+        if (outgoingSizes[owner] > 0) {
+          flush(owner);
+        }
+      }
+    }
+
+    private void flush(int owner) {
+      outstanding.incrementAndGet();
+      workers[owner].inbox.add(Arrays.copyOf(outgoing[owner], outgoingSizes[owner]));
+      outgoingSizes[owner] = 0;
+    }
+
+    private void push(int cost, int depth, int index) {
+      int b = cost * levels + depth;
+      int[] bucket = buckets[b];
+      if (bucket == null) {
+        bucket = buckets[b] = new int[initial_capacity];
+      } else if (sizes[b] == bucket.length) {
+        bucket = buckets[b] = Arrays.copyOf(bucket, bucket.length * 2);
+      }
+      bucket[sizes[b]++] = index;
+      if (cost < minimum) {
+        minimum = cost;
+      }
+    }
+
+    private int pop() {
+      int limit = Math.min(levels, incumbent.get());
+      for (; minimum < limit; minimum++) {
+        for (int depth = levels - 1; depth >= 0; depth--) {
+          int b = minimum * levels + depth;
+          if (sizes[b] > 0) {
+            sizes[b]--;
+            return b;
+          }
+        }
+      }
+      return -1;
+    }
+
+    private int find(int corner, int edge1, int edge2) {
+      int mask = table.length - 1;
+      for (int i = BestFirstSearch.hash(corner, edge1, edge2) & mask; table[i] != 0; i = (i + 1) & mask) {
+        int k = (table[i] - 1) * entry_size;
+        if (closed[k] == corner && closed[k + 1] == edge1 && closed[k + 2] == edge2) {
+          return table[i] - 1;
+        }
+      }
+      return -1;
+    }
+
+    private int add(int corner, int edge1, int edge2, int parent, int worker, int depth) {
+      if ((size + 1) * entry_size > closed.length) {
+        closed = Arrays.copyOf(closed, closed.length * 2);
+      }
+      if ((size + 1) * 2 > table.length) {
+        table = new int[table.length * 2];
+        for (int i = 0; i < size; i++) {
+          insert(i);
+        }
+      }
+
+      int k = size * entry_size;
+      closed[k] = corner;
+      closed[k + 1] = edge1;
+      closed[k + 2] = edge2;
+      closed[k + 3] = parent;
+      closed[k + 4] = worker;
+      closed[k + 5] = depth;
+      insert(size);
+      return size++;
+    }
+
+    private void insert(int index) {
+      int k = index * entry_size;
+      int mask = table.length - 1;
+      int i = BestFirstSearch.hash(closed[k], closed[k + 1], closed[k + 2]) & mask;
+      while (table[i] != 0) {
+        i = (i + 1) & mask;
+      }
+      table[i] = index + 1;
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package rubikscube.solver;
+
+public enum SearchMode {
+  DEPTH_FIRST,
+  BEST_FIRST,
+  PARALLEL_BEST_FIRST,
+  BREADTH_FIRST_HEURISTIC
+}
@@ -0,0 +1,188 @@
+package rubikscube.solver;
+
+import java.lang.management.ManagementFactory;
+
+public class SearchStatistics {
+
+  private static final java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+  private long nodesExpanded;
+  private long nodesGenerated;
+  private int iterations;
+  private int solutionLength;
+  private long pathmaxCutoffs;
+  private long dualCutoffs;
+  private long dualImprovements;
+  private long perimeterLookups;
+  private long perimeterCutoffs;
+  private long maxStored;
+  private String[] sources = new String[0];
+  private long[] decisive = new long[0];
+  private long allocatedBytes;
+  private long elapsedNanos;
+  private long startBytes;
+  private long startNanos;
+
+  void reset() {
+    nodesExpanded = 0;
+    nodesGenerated = 0;
+    iterations = 0;
+    solutionLength = -1;
+    pathmaxCutoffs = 0;
+    dualCutoffs = 0;
+    dualImprovements = 0;
+    perimeterLookups = 0;
+    perimeterCutoffs = 0;
+    maxStored = 0;
+    for (int i = 0; i < decisive.length; i++) {
+      decisive[i] = 0;
+    }
+    allocatedBytes = -1;
+    elapsedNanos = 0;
+  }
+
+  void start() {
+    startNanos = System.nanoTime();
+    startBytes = currentAllocatedBytes();
+  }
+
+  void stop() {
+    long bytes = currentAllocatedBytes();
+    elapsedNanos = System.nanoTime() - startNanos;
+    allocatedBytes = (bytes < 0 || startBytes < 0) ? -1 : bytes - startBytes;
+  }
+
+  void sources(String[] sources) {
+    this.sources = sources;
+    decisive = new long[sources.length];
+  }
+
+  void decisive(int source, int count) {
+    decisive[source] += count;
+  }
+
+  void expanded() {
+    nodesExpanded++;
+  }
+
+  void generated() {
+    nodesGenerated++;
+  }
+
+  void add(long expanded, long generated) {
+    nodesExpanded += expanded;
+    nodesGenerated += generated;
+  }
+
+  void iteration() {
+    iterations++;
+  }
+
+  void solved(int length) {
+    solutionLength = length;
+  }
+
+  void stored(long states) {
+    if (states > maxStored) {
+      maxStored = states;
+    }
+  }
+
+  void pathmaxCutoff() {
+    pathmaxCutoffs++;
+  }
+
+  void dualCutoff() {
+    dualCutoffs++;
+  }
+
+  void dualImproved() {
+    dualImprovements++;
+  }
+
+  void perimeterLookup() {
+    perimeterLookups++;
+  }
+
+  void perimeterCutoff() {
+    perimeterCutoffs++;
+  }
+
+  public long getNodesExpanded() {
+    return nodesExpanded;
+  }
+
+  public long getNodesGenerated() {
+    return nodesGenerated;
+  }
+
+  public int getIterations() {
+    return iterations;
+  }
+
+  public int getSolutionLength() {
+    return solutionLength;
+  }
+
+  public long getPathmaxCutoffs() {
+    return pathmaxCutoffs;
+  }
+
+  public long getDualCutoffs() {
+    return dualCutoffs;
+  }
+
+  public long getDualImprovements() {
+    return dualImprovements;
+  }
+
+  public long getPerimeterLookups() {
+    return perimeterLookups;
+  }
+
+  public long getPerimeterCutoffs() {
+    return perimeterCutoffs;
+  }
+
+  public long getMaxStored() {
+    return maxStored;
+  }
+
+  public String[] getSources() {
+    return sources;
+  }
+
+  public long[] getDecisive() {
+    return decisive;
+  }
+
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "Iterations: " + iterations + " Expanded: " + nodesExpanded + " Generated: " + nodesGenerated
+            + " Pathmax cutoffs: " + pathmaxCutoffs + " Dual cutoffs: " + dualCutoffs + " Dual improvements: " + dualImprovements
+            + " Perimeter lookups: " + perimeterLookups + " Perimeter cutoffs: " + perimeterCutoffs
+            + " Stored: " + maxStored + " Decisive: " + getDecisiveString() + " Time: " + (elapsedNanos / 1000000) + "ms Allocated: " + allocatedBytes + " bytes";
+  }
+
+  private String getDecisiveString() {
+    String s = "";
+    for (int i = 0; i < sources.length; i++) {
+      s += (i > 0 ? ", " : "") + sources[i] + " " + decisive[i];
+    }
+    return s;
+  }
+
+  private static long currentAllocatedBytes() {
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return -1;
+  }
+}
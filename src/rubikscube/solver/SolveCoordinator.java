@@ -0,0 +1,446 @@
+package rubikscube.solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import rubikscube.MoveTables;
+import rubikscube.RubiksCube;
+
+public class SolveCoordinator implements Closeable {
+
+  private static final int DEFAULT_DEPTH = 3;
+  private static final long poll_millis = 10;
+  private final ServerSocket server;
+  private final int frontierDepth;
+  private final BlockingQueue<Task> tasks = new LinkedBlockingQueue<>();
+  private final List<Connection> connections = new CopyOnWriteArrayList<>();
+  private volatile boolean closed;
+  private int ids;
+
+  public SolveCoordinator(int port, int frontierDepth) throws IOException {
+    this.server = new ServerSocket(port);
+    this.frontierDepth = frontierDepth;
+
+    Thread acceptor = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        while (!closed) {
+          try {
+            Connection connection = new Connection(server.accept());
+            connections.add(connection);
+            Thread thread = new Thread(connection);
+            thread.setDaemon(true);
+            thread.start();
+          } catch (IOException e) {
+            if (!closed) {
+              System.out.println("There is an error accepting a worker.");
+            }
+          }
+        }
+      }
+    });
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length < 2) {
+      System.out.println("Usage: SolveCoordinator <port> <workers> [--depth k] [--timeout ms] [--nodes n]");
+      return;
+    }
+
+    int depth = DEFAULT_DEPTH;
+    long timeout = 0;
+    long nodes = 0;
+    for (int i = 2; i < args.length - 1; i++) {
+      if (args[i].equals("--depth")) {
+        depth = Integer.parseInt(args[i + 1]);
+      } else if (args[i].equals("--timeout")) {
+        timeout = Long.parseLong(args[i + 1]);
+      } else if (args[i].equals("--nodes")) {
+        nodes = Long.parseLong(args[i + 1]);
+      }
+    }
+
+    Scanner scanner = new Scanner(new File("cube.txt"));
+    StringBuilder representation = new StringBuilder();
+    while (scanner.hasNext()) {
+      representation.append(scanner.next());
+    }
+
+    try (SolveCoordinator coordinator = new SolveCoordinator(Integer.parseInt(args[0]), depth)) {
+      coordinator.awaitWorkers(Integer.parseInt(args[1]));
+      SolveResult result = coordinator.solve(new RubiksCube(representation.toString()), new SolveLimits(timeout, nodes));
+      System.out.println(result);
+      System.out.println("Expanded: " + result.getNodesExpanded() + " Time: " + (result.getElapsedNanos() / 1000000) + "ms");
+    }
+  }
+
+  public int getWorkerCount() {
+    return connections.size();
+  }
+
+  public void awaitWorkers(int count) throws InterruptedException {
+    while (connections.size() < count) {
+      Thread.sleep(poll_millis);
+    }
+  }
+
+  public SolveResult solve(RubiksCube c, SolveLimits limits) {
+    long start = System.nanoTime();
+    byte[] root = new byte[MoveTables.CUBIES];
+    c.getCubies(root);
+    byte[] solved = new byte[MoveTables.CUBIES];
+    MoveTables.getSolvedCubies(solved);
+
+    List<byte[]> prefixes = new ArrayList<>();
+    for (int depth = 0; depth <= frontierDepth; depth++) {
+      prefixes.clear();
+      collect(root, new byte[0], depth, prefixes);
+      if (depth == frontierDepth) {
+        break;
+      }
+
+      for (byte[] prefix : prefixes) {
+        byte[] cubies = apply(root, prefix);
+        if (Arrays.equals(cubies, solved)) {
+          return new SolveResult(SolveStatus.SOLVED, prefix, prefix.length, 0, System.nanoTime() - start);
+        }
+      }
+    }
+
+    long nodes = 0;
+    byte[] partial = new byte[0];
+    int bound = frontierDepth;
+    while (bound <= DepthFirstSearch.MAX_DEPTH) {
+      Iteration iteration = new Iteration(root, bound, limits, nodes, prefixes.size());
+      synchronized (this) {
+        for (byte[] prefix : prefixes) {
+          tasks.add(new Task(++ids, iteration, prefix));
+        }
+      }
+
+      SolveStatus status = await(iteration);
+      nodes = iteration.getNodes();
+      long elapsed = System.nanoTime() - start;
+      if (status == SolveStatus.SOLVED) {
+        byte[] solution = iteration.getSolution();
+        return new SolveResult(status, solution, solution.length, nodes, elapsed);
+      }
+      if (status != null) {
+        return new SolveResult(status, iteration.getPartial(partial), bound, nodes, elapsed);
+      }
+      bound = iteration.getNext();
+    }
+    return new SolveResult(SolveStatus.NO_SOLUTION, partial, bound, nodes, System.nanoTime() - start);
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    for (Connection connection : connections) {
+      connection.shutdown();
+    }
+    server.close();
+  }
+
+  private SolveStatus await(Iteration iteration) {
+    SolveStatus status = iteration.await(poll_millis);
+    while (status == null && !iteration.isDone()) {
+      if (iteration.getNodes() > iteration.limits.getMaxNodes()) {
+        status = SolveStatus.NODE_BUDGET;
+      } else if (iteration.limits.isCancelled()) {
+        status = SolveStatus.CANCELLED;
+      } else if (iteration.limits.isExpired()) {
+        status = SolveStatus.DEADLINE;
+      } else {
+        status = iteration.await(poll_millis);
+      }
+    }
+    if (status == null) {
+      status = iteration.getStatus();
+    }
+
+    if (status != null) {
+      iteration.stop();
+      for (Iterator<Task> it = tasks.iterator(); it.hasNext();) {
+        if (it.next().iteration == iteration) {
+          it.remove();
+        }
+      }
+      for (Connection connection : connections) {
+        connection.cancel(iteration);
+      }
+    }
+    return status;
+  }
+
+  private void collect(byte[] cubies, byte[] prefix, int depth, List<byte[]> prefixes) {
+    if (prefix.length == depth) {
+      prefixes.add(prefix);
+      return;
+    }
+
+    int previous = prefix.length > 0 ? prefix[prefix.length - 1] / 3 : -1;
+    byte[] next = new byte[MoveTables.CUBIES];
+    for (byte face : RubiksCube.getFaces()) {
+      if (face == previous || face == (previous ^ 1) && face < previous) {
+        continue;
+      }
+
+      for (int i = 0; i < 3; i++) {
+        byte move = OptimalSolver.encode(face, (byte) (i + 1));
+        MoveTables.moveCubies(cubies, move, next);
+        byte[] child = Arrays.copyOf(prefix, prefix.length + 1);
+        child[prefix.length] = move;
+        collect(next.clone(), child, depth, prefixes);
+      }
+    }
+  }
+
+  private static byte[] apply(byte[] root, byte[] moves) {
+    byte[] cubies = root.clone();
+    byte[] next = new byte[MoveTables.CUBIES];
+    for (byte move : moves) {
+      MoveTables.moveCubies(cubies, move, next);
+      System.arraycopy(next, 0, cubies, 0, MoveTables.CUBIES);
+    }
+    return cubies;
+  }
+
+  private static class Task {
+
+    private final int id;
+    private final Iteration iteration;
+    private final byte[] prefix;
+    private long budget;
+
+    public Task(int id, Iteration iteration, byte[] prefix) {
+      this.id = id;
+      this.iteration = iteration;
+      this.prefix = prefix;
+    }
+  }
+
+  private static class Iteration {
+
+    private final byte[] root;
+    private final int bound;
+    private final SolveLimits limits;
+    private int pending;
+    private int next = Integer.MAX_VALUE;
+    private long nodes;
+    private long reserved;
+    private SolveStatus stop;
+    private byte[] solution;
+    private byte[] partial;
+    private volatile boolean stopped;
+
+    public Iteration(byte[] root, int bound, SolveLimits limits, long nodes, int pending) {
+      this.root = root;
+      this.bound = bound;
+      this.limits = limits;
+      this.nodes = nodes;
+      this.pending = pending;
+    }
+
+    public synchronized void complete(SolveResult result, long budget) {
+      nodes += result.getNodesExpanded();
+      reserved -= budget;
+      if (result.isSolved()) {
+        if (solution == null) {
+          solution = result.getMoves();
+        }
+      } else if (result.getStatus() == SolveStatus.NO_SOLUTION) {
+        next = Math.min(next, result.getLowerBound());
+      } else {
+        if (stop == null) {
+          stop = result.getStatus();
+        }
+        if (result.getMoves().length > 0) {
+          partial = result.getMoves();
+        }
+      }
+      pending--;
+      notifyAll();
+    }
+
+    public synchronized SolveStatus await(long millis) {
+      if (solution == null && pending > 0) {
+        try {
+          wait(millis);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return getStatus();
+    }
+
+    public synchronized SolveStatus getStatus() {
+      return solution != null ? SolveStatus.SOLVED : stop;
+    }
+
+    public synchronized boolean isDone() {
+      return pending == 0 || solution != null;
+    }
+
+    public void stop() {
+      stopped = true;
+    }
+
+    public boolean isStopped() {
+      return stopped;
+    }
+
+    public synchronized long reserveNodes(int workers) {
+      long max = limits.getMaxNodes();
+      if (max == Long.MAX_VALUE) {
+        return 0;
+      }
+      long budget = Math.max(1, (max - nodes - reserved) / Math.max(1, workers));
+      reserved += budget;
+      return budget;
+    }
+
+    public synchronized void release(long budget) {
+      reserved -= budget;
+    }
+
+    public long getRemainingMillis() {
+      long nanos = limits.getRemainingNanos();
+      return nanos == Long.MAX_VALUE ? 0 : Math.max(1, nanos / 1000000);
+    }
+
+    public synchronized long getNodes() {
+      return nodes;
+    }
+
+    public synchronized int getNext() {
+      return next;
+    }
+
+    public synchronized byte[] getSolution() {
+      return solution;
+    }
+
+    public synchronized byte[] getPartial(byte[] fallback) {
+      return partial != null ? partial : fallback;
+    }
+  }
+
+  private class Connection implements Runnable {
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private Task current;
+
+    public Connection(Socket socket) throws IOException {
+      this.socket = socket;
+      socket.setTcpNoDelay(true);
+      in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    @Override
+    public void run() {
+      while (!closed) {
+        Task task;
+        try {
+          task = tasks.poll(poll_millis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          break;
+        }
+        if (task == null) {
+          continue;
+        }
+
+        long start = System.nanoTime();
+        try {
+          if (!send(task)) {
+            continue;
+          }
+          int id = in.readInt();
+          if (id != task.id) {
+            System.out.println("There is an error: a worker answered task " + id + " while running task " + task.id + ".");
+            throw new IOException("Unexpected result for task " + id);
+          }
+          SolveResult result = SolveProtocol.readResult(in, System.nanoTime() - start);
+          synchronized (out) {
+            current = null;
+          }
+          task.iteration.complete(result, task.budget);
+        } catch (IOException e) {
+          task.iteration.release(task.budget);
+          task.budget = 0;
+          if (!closed) {
+            System.out.println("Lost a worker, requeueing its task.");
+            tasks.add(task);
+          }
+          connections.remove(this);
+          break;
+        }
+      }
+    }
+
+    private boolean send(Task task) throws IOException {
+      synchronized (out) {
+        if (task.iteration.isStopped()) {
+          return false;
+        }
+        current = task;
+        task.budget = task.iteration.reserveNodes(connections.size());
+        out.writeInt(SolveProtocol.TASK);
+        out.writeInt(task.id);
+        out.write(task.iteration.root);
+        out.writeInt(task.iteration.bound);
+        out.writeLong(task.budget);
+        out.writeLong(task.iteration.getRemainingMillis());
+        SolveProtocol.writeMoves(out, task.prefix);
+        out.flush();
+        return true;
+      }
+    }
+
+    public void cancel(Iteration iteration) {
+      synchronized (out) {
+        if (current != null && current.iteration == iteration) {
+          try {
+            out.writeInt(SolveProtocol.CANCEL);
+            out.writeInt(current.id);
+            out.flush();
+          } catch (IOException e) {
+            System.out.println("There is an error cancelling a worker task.");
+          }
+        }
+      }
+    }
+
+    public void shutdown() {
+      synchronized (out) {
+        try {
+          out.writeInt(SolveProtocol.SHUTDOWN);
+          out.flush();
+          socket.close();
+        } catch (IOException e) {
+          System.out.println("There is an error closing a worker connection.");
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package rubikscube.solver;
+
+public class SolveLimits {
+
+  private final long deadline;
+  private final boolean timed;
+  private final long maxNodes;
+  private volatile boolean cancelled;
+
+  public SolveLimits(long timeoutMillis, long maxNodes) {
+    this.timed = timeoutMillis > 0;
+    this.deadline = System.nanoTime() + timeoutMillis * 1000000L;
+    this.maxNodes = maxNodes > 0 ? maxNodes : Long.MAX_VALUE;
+  }
+
+  public static SolveLimits unlimited() {
+    return new SolveLimits(0, 0);
+  }
+
+  public long getMaxNodes() {
+    return maxNodes;
+  }
+
+  public long getRemainingNanos() {
+    return timed ? deadline - System.nanoTime() : Long.MAX_VALUE;
+  }
+
+  public boolean isExpired() {
+    return timed && System.nanoTime() - deadline >= 0;
+  }
+
+  public void cancel() {
+    cancelled = true;
+  }
+
+  public boolean isCancelled() {
+    return cancelled || Thread.currentThread().isInterrupted();
+  }
+}
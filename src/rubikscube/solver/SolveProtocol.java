@@ -0,0 +1,42 @@
+package rubikscube.solver;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+final class SolveProtocol {
+
+  static final int TASK = 1;
+  static final int CANCEL = 2;
+  static final int SHUTDOWN = 3;
+
+  private SolveProtocol() {
+  }
+
+  static void writeResult(DataOutputStream out, int id, SolveResult result) throws IOException {
+    out.writeInt(id);
+    out.writeInt(result.getStatus().ordinal());
+    out.writeInt(result.getLowerBound());
+    out.writeLong(result.getNodesExpanded());
+    writeMoves(out, result.getMoves());
+    out.flush();
+  }
+
+  static SolveResult readResult(DataInputStream in, long elapsedNanos) throws IOException {
+    SolveStatus status = SolveStatus.values()[in.readInt()];
+    int lowerBound = in.readInt();
+    long nodes = in.readLong();
+    return new SolveResult(status, readMoves(in), lowerBound, nodes, elapsedNanos);
+  }
+
+  static void writeMoves(DataOutputStream out, byte[] moves) throws IOException {
+    out.writeInt(moves.length);
+    out.write(moves);
+  }
+
+  static byte[] readMoves(DataInputStream in) throws IOException {
+    byte[] moves = new byte[in.readInt()];
+    in.readFully(moves);
+    return moves;
+  }
+}
@@ -0,0 +1,69 @@
+package rubikscube.solver;
+
+import java.util.Arrays;
+import rubikscube.RubiksCube;
+
+public class SolveResult {
+
+  private final SolveStatus status;
+  private final byte[] moves;
+  private final int lowerBound;
+  private final long nodesExpanded;
+  private final long elapsedNanos;
+
+  public SolveResult(SolveStatus status, byte[] moves, int lowerBound, long nodesExpanded, long elapsedNanos) {
+    this.status = status;
+    this.moves = Arrays.copyOf(moves, moves.length);
+    this.lowerBound = lowerBound;
+    this.nodesExpanded = nodesExpanded;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  public SolveStatus getStatus() {
+    return status;
+  }
+
+  public boolean isSolved() {
+    return status == SolveStatus.SOLVED;
+  }
+
+  public byte[] getMoves() {
+    return moves;
+  }
+
+  public int getLowerBound() {
+    return lowerBound;
+  }
+
+  public long getNodesExpanded() {
+    return nodesExpanded;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  public String getSolution() {
+    if (!isSolved()) {
+      return "No solution found";
+    }
+    return moves.length == 0 ? "Already solved" : format(moves);
+  }
+
+  public static String format(byte[] moves) {
+    String solution = "";
+    for (byte move : moves) {
+      solution += RubiksCube.getColor((byte) (move / 3)) + "" + ((move % 3) + 1) + " ";
+    }
+    return solution;
+  }
+
+  @Override
+  public String toString() {
+    if (isSolved()) {
+      return getSolution();
+    }
+    return "Status: " + status + " Lower bound: " + lowerBound + " Expanded: " + nodesExpanded
+            + " Time: " + (elapsedNanos / 1000000) + "ms Partial: " + format(moves);
+  }
+}
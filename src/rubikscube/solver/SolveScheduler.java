@@ -0,0 +1,161 @@
+package rubikscube.solver;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import rubikscube.RubiksCube;
+
+public class SolveScheduler implements Closeable {
+
+  private static final double aging_millis = 1000;
+  private final OptimalSolver solver;
+  private final CostEstimator estimator;
+  private final List<Job> queue = new ArrayList<>();
+  private final List<Thread> workers = new ArrayList<>();
+  private final double maxNodes;
+  private boolean shortestFirst = true;
+  private boolean closed;
+
+  public SolveScheduler(OptimalSolver solver, CostEstimator estimator, int threads, double maxNodes) {
+    this.solver = solver;
+    this.estimator = estimator;
+    this.maxNodes = maxNodes;
+    for (int i = 0; i < threads; i++) {
+      Thread worker = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          Job job;
+          while ((job = take()) != null) {
+            if (!job.estimated && schedule(job)) {
+              continue;
+            }
+            job.task.run();
+          }
+        }
+      });
+      worker.setDaemon(true);
+      worker.start();
+      workers.add(worker);
+    }
+  }
+
+  public void setShortestFirst(boolean shortestFirst) {
+    this.shortestFirst = shortestFirst;
+  }
+
+  public Future<SolveResult> submit(RubiksCube cube, SolveLimits limits) {
+    Job job = new Job(cube, limits);
+    synchronized (queue) {
+      if (closed) {
+        throw new RejectedExecutionException("The scheduler is closed.");
+      }
+      queue.add(job);
+      queue.notify();
+    }
+    return job.task;
+  }
+
+  public int getQueued() {
+    synchronized (queue) {
+      return queue.size();
+    }
+  }
+
+  @Override
+  public void close() {
+    synchronized (queue) {
+      closed = true;
+      for (Job job : queue) {
+        job.task.cancel(false);
+      }
+      queue.clear();
+      queue.notifyAll();
+    }
+  }
+
+  private boolean schedule(Job job) {
+    SolveResult probe = estimator.probe(job.cube);
+    if (probe != null && probe.getStatus() == SolveStatus.SOLVED) {
+      job.result = probe;
+      return false;
+    }
+    double estimate = estimator.estimateNodes(job.cube, probe);
+    if (maxNodes > 0 && estimate > maxNodes) {
+      job.rejected = "The estimated cost of " + (long) estimate + " nodes is over the limit.";
+      return false;
+    }
+
+    synchronized (queue) {
+      job.setEstimate(estimate);
+      if (!shortestFirst || closed) {
+        return false;
+      }
+      queue.add(job);
+      queue.notify();
+      return true;
+    }
+  }
+
+  private Job take() {
+    synchronized (queue) {
+      while (queue.isEmpty() && !closed) {
+        try {
+          queue.wait();
+        } catch (InterruptedException e) {
+          return null;
+        }
+      }
+      if (closed) {
+        return null;
+      }
+
+      long now = System.nanoTime();
+      int best = 0;
+      for (int i = 1; i < queue.size() && shortestFirst; i++) {
+        if (queue.get(i).getPriority(now) < queue.get(best).getPriority(now)) {
+          best = i;
+        }
+      }
+      return queue.remove(best);
+    }
+  }
+
+  private class Job {
+
+    private final RubiksCube cube;
+    private final SolveLimits limits;
+    private final FutureTask<SolveResult> task;
+    private final long submitted = System.nanoTime();
+    private boolean estimated;
+    private double cost;
+    private SolveResult result;
+    private String rejected;
+
+    private Job(RubiksCube cube, SolveLimits limits) {
+      this.cube = cube;
+      this.limits = limits;
+      task = new FutureTask<SolveResult>(new Callable<SolveResult>() {
+        @Override
+        public SolveResult call() {
+          if (rejected != null) {
+            throw new RejectedExecutionException(rejected);
+          }
+          return result != null ? result : solver.solve(Job.this.cube, Job.this.limits);
+        }
+      });
+    }
+
+    private void setEstimate(double estimate) {
+      cost = Math.log10(Math.max(1, estimate));
+      estimated = true;
+    }
+
+    private double getPriority(long now) {
+      return estimated ? cost - (now - submitted) / 1e6 / aging_millis : Double.NEGATIVE_INFINITY;
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package rubikscube.solver;
+
+public enum SolveStatus {
+  SOLVED,
+  NO_SOLUTION,
+  DEADLINE,
+  NODE_BUDGET,
+  CANCELLED
+}
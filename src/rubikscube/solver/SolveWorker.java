@@ -0,0 +1,94 @@
+package rubikscube.solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import rubikscube.MoveTables;
+import rubikscube.RubiksCube;
+
+public class SolveWorker implements Runnable {
+
+  private final String host;
+  private final int port;
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private volatile int current = -1;
+  private volatile SolveLimits limits;
+
+  public SolveWorker(String host, int port) {
+    this.host = host;
+    this.port = port;
+  }
+
+  public static void main(String[] args) {
+    if (args.length < 2) {
+      System.out.println("Usage: SolveWorker <host> <port> [threads]");
+      return;
+    }
+
+    int threads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+    OptimalSolver.getInstance();
+    for (int i = 0; i < threads; i++) {
+      new Thread(new SolveWorker(args[0], Integer.parseInt(args[1]))).start();
+    }
+  }
+
+  @Override
+  public void run() {
+    try (Socket socket = new Socket(host, port)) {
+      socket.setTcpNoDelay(true);
+      DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+      while (true) {
+        int type = in.readInt();
+        if (type == SolveProtocol.SHUTDOWN) {
+          break;
+        }
+
+        final int id = in.readInt();
+        if (type == SolveProtocol.CANCEL) {
+          SolveLimits l = limits;
+          if (current == id && l != null) {
+            l.cancel();
+          }
+          continue;
+        }
+
+        final byte[] cubies = new byte[MoveTables.CUBIES];
+        in.readFully(cubies);
+        final int bound = in.readInt();
+        long maxNodes = in.readLong();
+        long timeout = in.readLong();
+        final byte[] prefix = SolveProtocol.readMoves(in);
+        limits = new SolveLimits(timeout, maxNodes);
+        current = id;
+        final SolveLimits l = limits;
+        executor.execute(new Runnable() {
+          @Override
+          public void run() {
+            SolveResult result = OptimalSolver.getInstance().solve(new RubiksCube(cubies), prefix, bound, l);
+            try {
+              synchronized (out) {
+                SolveProtocol.writeResult(out, id, result);
+              }
+            } catch (IOException e) {
+              System.out.println("There is an error writing to the coordinator.");
+            }
+          }
+        });
+      }
+    } catch (EOFException e) {
+      System.out.println("The coordinator closed the connection.");
+    } catch (IOException e) {
+      System.out.println("There is an error communicating with the coordinator.");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}